@@ -13,5 +13,13 @@ import lombok.Setter;
 public class JoinRoomRequest {
     private String username;
     private String tempId;
+    // reprise après une coupure : jeton reçu à l'arrivée et dernier message de chat reçu
+    private String resumeToken;
+    private Long lastMessageId;
+
+    public JoinRoomRequest(String username, String tempId) {
+        this.username = username;
+        this.tempId = tempId;
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.main.triviatreckapp.Request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Une ligne de la composition d'une partie, ex : 5 questions HISTOIRE faciles.
+ * categoryId ou difficulty à null signifie « toutes ».
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionSlot {
+    private String categoryId;
+    private String difficulty;
+    private int count;
+}
@@ -5,9 +5,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.List;
+
 /**
  * Payload utilisé lors du lancement d'une partie.
- * Contient l'identifiant de la room et le user qui démarre la partie.
+ * Contient l'identifiant de la room, le user qui démarre la partie et,
+ * optionnellement, la composition voulue (sinon tirage uniforme).
  */
 @Getter
 @Setter
@@ -16,4 +19,5 @@ import lombok.Setter;
 public class StartGameRequest {
     private String roomId;
     private Long participantId;
+    private List<QuestionSlot> composition;
 }
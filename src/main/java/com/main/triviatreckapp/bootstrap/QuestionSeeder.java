@@ -0,0 +1,43 @@
+package com.main.triviatreckapp.bootstrap;
+
+import com.main.triviatreckapp.service.QuestionCatalogService;
+import com.main.triviatreckapp.service.QuestionImporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Importe le fichier de questions en tâche de fond une fois l'application prête,
+ * puis recharge le catalogue. Le démarrage n'attend pas l'import.
+ */
+@Slf4j
+@Component
+public class QuestionSeeder {
+
+    private final QuestionImporter questionImporter;
+    private final QuestionCatalogService questionCatalogService;
+
+    @Value("${quiz.questions.source:classpath:static/Questions.json}")
+    private Resource source;
+
+    public QuestionSeeder(QuestionImporter questionImporter, QuestionCatalogService questionCatalogService) {
+        this.questionImporter = questionImporter;
+        this.questionCatalogService = questionCatalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedQuestions() {
+        Thread.ofVirtual().name("question-import").start(() -> {
+            try {
+                if (questionImporter.importFrom(source.getFilename(), source) > 0) {
+                    questionCatalogService.reload();
+                }
+            } catch (Exception e) {
+                log.error("Échec de l'import des questions depuis {}", source.getDescription(), e);
+            }
+        });
+    }
+}
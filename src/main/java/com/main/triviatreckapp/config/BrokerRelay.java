@@ -0,0 +1,150 @@
+package com.main.triviatreckapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.ReconnectStrategy;
+import org.springframework.messaging.tcp.TcpConnectionHandler;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mode du broker STOMP ({@code quiz.broker.mode}) :
+ * <ul>
+ *   <li>{@code simple} : broker en mémoire, les diffusions n'atteignent que les sessions du même nœud ;</li>
+ *   <li>{@code relay} : les destinations sont relayées vers un broker STOMP externe (ActiveMQ Artemis,
+ *   RabbitMQ…) partagé par tous les nœuds derrière le répartiteur.</li>
+ * </ul>
+ * En mode relais, les destinations {@code /user} d'un utilisateur connecté à un autre nœud sont résolues
+ * par le registre des utilisateurs diffusé entre nœuds ({@link #USER_REGISTRY_BROADCAST}) ; les messages
+ * non résolus localement sont rediffusés sur {@link #USER_DESTINATION_BROADCAST}.
+ * <p>
+ * Si le broker tombe, la session système du relais se reconnecte en back-off exponentiel
+ * (avec gigue, pour que tous les nœuds ne reviennent pas à la même milliseconde) ;
+ * entre-temps les CONNECT des clients sont refusés et ceux-ci reprennent leur place avec leur jeton de reprise.
+ * <p>
+ * Les abonnements déclarés par {@link #subscribe} sont portés par la session système du relais :
+ * c'est par eux que les nœuds s'échangent ce qu'ils gardent en mémoire
+ * ({@link com.main.triviatreckapp.service.RoomSync}).
+ */
+@Slf4j
+@Component
+public class BrokerRelay implements SmartInitializingSingleton {
+
+    public static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user-destination";
+    public static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
+    private final boolean enabled;
+    private final String host;
+    private final int port;
+    private final String login;
+    private final String passcode;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final AtomicBoolean available = new AtomicBoolean();
+    private final Map<String, MessageHandler> systemSubscriptions = new ConcurrentHashMap<>();
+    private final ObjectProvider<StompBrokerRelayMessageHandler> relayHandler;
+
+    public BrokerRelay(@Value("${quiz.broker.mode:simple}") String mode,
+                       @Value("${quiz.broker.relay.host:localhost}") String host,
+                       @Value("${quiz.broker.relay.port:61613}") int port,
+                       @Value("${quiz.broker.relay.login:guest}") String login,
+                       @Value("${quiz.broker.relay.passcode:guest}") String passcode,
+                       @Value("${quiz.broker.relay.reconnect.initial-ms:1000}") long initialDelayMs,
+                       @Value("${quiz.broker.relay.reconnect.max-ms:30000}") long maxDelayMs,
+                       ObjectProvider<StompBrokerRelayMessageHandler> relayHandler,
+                       MeterRegistry meterRegistry) {
+        if (!"simple".equals(mode) && !"relay".equals(mode)) {
+            throw new IllegalArgumentException("quiz.broker.mode doit valoir simple ou relay : " + mode);
+        }
+        this.enabled = "relay".equals(mode);
+        this.host = host;
+        this.port = port;
+        this.login = login;
+        this.passcode = passcode;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.relayHandler = relayHandler;
+        meterRegistry.gauge("quiz.broker.available", available, a -> a.get() ? 1 : 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAvailable() {
+        return available.get();
+    }
+
+    public void configure(MessageBrokerRegistry registry, String... destinationPrefixes) {
+        registry.enableStompBrokerRelay(destinationPrefixes)
+                .setRelayHost(host)
+                .setRelayPort(port)
+                .setClientLogin(login)
+                .setClientPasscode(passcode)
+                .setSystemLogin(login)
+                .setSystemPasscode(passcode)
+                .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
+                .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST)
+                .setTcpClient(new ReactorNettyTcpClient<>(host, port, new StompReactorNettyCodec()) {
+                    // le relais impose un intervalle fixe de 5 s à la session système
+                    @Override
+                    public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler,
+                                                                ReconnectStrategy strategy) {
+                        return super.connectAsync(handler, BrokerRelay.this::reconnectDelay);
+                    }
+                });
+    }
+
+    /**
+     * Abonne la session système du relais à {@code destination} ; à appeler pendant le démarrage du contexte,
+     * avant la première connexion au broker.
+     */
+    public void subscribe(String destination, MessageHandler handler) {
+        systemSubscriptions.put(destination, handler);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || systemSubscriptions.isEmpty()) {
+            return;
+        }
+        // le relais ne se connecte qu'au démarrage des composants SmartLifecycle, après cet appel
+        StompBrokerRelayMessageHandler handler = relayHandler.getObject();
+        Map<String, MessageHandler> subscriptions = new HashMap<>(handler.getSystemSubscriptions());
+        subscriptions.putAll(systemSubscriptions);
+        handler.setSystemSubscriptions(subscriptions);
+    }
+
+    /**
+     * Délai avant la tentative suivante : double à chaque échec jusqu'à {@code max-ms},
+     * tiré entre la moitié et la totalité de cette valeur.
+     */
+    Long reconnectDelay(int attemptCount) {
+        long delay = Math.min(maxDelayMs, initialDelayMs << Math.min(Math.max(attemptCount - 1, 0), 20));
+        return ThreadLocalRandom.current().nextLong(delay / 2, delay + 1);
+    }
+
+    @EventListener
+    public void onBrokerAvailability(BrokerAvailabilityEvent event) {
+        available.set(event.isBrokerAvailable());
+        if (enabled && !event.isBrokerAvailable()) {
+            log.warn("Broker STOMP {}:{} injoignable, reconnexion en cours", host, port);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.main.triviatreckapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Réserve /internal aux nœuds du cluster : chaque appel doit porter {@link #HEADER}
+ * égal à {@code quiz.cluster.secret}. Sans secret configuré, tout appel est refusé.
+ */
+@Slf4j
+@Component
+public class ClusterSecretFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Cluster-Secret";
+    static final String PATH_PREFIX = "/internal/";
+
+    private final byte[] secret;
+
+    public ClusterSecretFilter(@Value("${quiz.cluster.secret:}") String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        // comparaison en temps constant : la durée de la réponse ne renseigne pas sur le secret
+        if (secret.length == 0 || presented == null
+                || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Appel interne refusé depuis {} : {}", request.getRemoteAddr(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
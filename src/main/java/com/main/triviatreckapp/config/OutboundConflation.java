@@ -0,0 +1,389 @@
+package com.main.triviatreckapp.config;
+
+import com.main.triviatreckapp.service.StompBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File d'envoi propre à chaque session WebSocket, avec fusion des mises à jour d'état de /game/{gameId}.
+ * <p>
+ * Sans elle, une trame en cours d'écriture vers un joueur mal connecté retient les suivantes dans le tampon
+ * de Spring jusqu'à {@code sendTimeLimit}, puis la session est fermée. Ici {@code sendMessage} ne bloque
+ * jamais : la trame rejoint la file de la session, vidée par un thread virtuel. Tant qu'elle attend :
+ * <ul>
+ *   <li>au-delà de {@code resync-queue} trames, un snapshot frais de la partie est demandé pour l'abonnement
+ *   ({@link WebSocketSubscriptionInterceptor#sendGameSnapshot}) : les scores et réponses en attente sont
+ *   remplacés par ce seul état ;</li>
+ *   <li>un snapshot plus récent de la même partie remplace les snapshots et les évènements d'état
+ *   (scores, réponses, arrivées) qu'il contient déjà, en remontant la file jusqu'au dernier changement
+ *   de question : la séquence vue par le client reste continue ;</li>
+ *   <li>un changement de question ({@code QuestionAdvanced}), le chat, les jokers et toute trame
+ *   sans en-tête {@link StompBroadcaster#EVENT_TYPE_HEADER} ne sont jamais retirés.</li>
+ * </ul>
+ * La fermeture reste le dernier recours : une session dont la file dépasse {@code max-queue} trames,
+ * dont la plus ancienne trame attend depuis plus de {@code max-lag-ms} (contrôlé à chaque ajout et par
+ * {@link #sweep}, même sans nouvel envoi), ou dont un envoi échoue, est fermée ; le client reprend sa place
+ * avec son jeton de reprise.
+ */
+@Slf4j
+@Component
+public class OutboundConflation {
+
+    static final String SNAPSHOT = "Snapshot";
+    // jamais fusionné, même s'il est contenu dans un snapshot plus récent
+    static final String QUESTION_ADVANCED = "QuestionAdvanced";
+
+    static final String GAME_PREFIX = "/game/";
+
+    private final int maxQueue;
+    private final int resyncQueue;
+    private final long maxLagNanos;
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-send-", 0).factory());
+    private final Map<String, OutboundSession> sessions = new ConcurrentHashMap<>();
+    private final WebSocketSubscriptionInterceptor subscriptions;
+    private final Counter resyncs;
+    private final Counter conflated;
+    private final Counter evictedDepth;
+    private final Counter evictedLag;
+    private final Counter evictedError;
+    private final DistributionSummary depth;
+
+    public OutboundConflation(@Value("${quiz.ws.outbound.max-queue:256}") int maxQueue,
+                              @Value("${quiz.ws.outbound.resync-queue:64}") int resyncQueue,
+                              @Value("${quiz.ws.outbound.max-lag-ms:10000}") long maxLagMs,
+                              @Lazy WebSocketSubscriptionInterceptor subscriptions,
+                              MeterRegistry meterRegistry) {
+        this.maxQueue = maxQueue;
+        this.resyncQueue = resyncQueue;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+        this.subscriptions = subscriptions;
+        this.resyncs = Counter.builder("quiz.ws.outbound.resyncs")
+                .description("Snapshots demandés pour remplacer les évènements en attente d'une session en retard")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("quiz.ws.outbound.conflated")
+                .description("Trames de /game retirées d'une file d'envoi, remplacées par un snapshot plus récent")
+                .register(meterRegistry);
+        this.evictedDepth = Counter.builder("quiz.ws.outbound.evicted")
+                .description("Sessions fermées parce qu'elles ne suivaient plus")
+                .tag("reason", "depth")
+                .register(meterRegistry);
+        this.evictedLag = Counter.builder("quiz.ws.outbound.evicted")
+                .description("Sessions fermées parce qu'elles ne suivaient plus")
+                .tag("reason", "lag")
+                .register(meterRegistry);
+        this.evictedError = Counter.builder("quiz.ws.outbound.evicted")
+                .description("Sessions fermées parce qu'elles ne suivaient plus")
+                .tag("reason", "error")
+                .register(meterRegistry);
+        // une série par session serait illimitée : la profondeur est relevée à chaque ajout, max et percentiles suffisent
+        this.depth = DistributionSummary.builder("quiz.ws.outbound.depth")
+                .description("Trames en attente dans la file de la session, relevé à chaque ajout")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("quiz.ws.outbound.queued", sessions,
+                s -> s.values().stream().mapToInt(OutboundSession::queued).sum());
+    }
+
+    public WebSocketHandlerDecoratorFactory decorator() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                OutboundSession outbound = new OutboundSession(session);
+                sessions.put(session.getId(), outbound);
+                super.afterConnectionEstablished(outbound);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                OutboundSession outbound = sessions.remove(session.getId());
+                if (outbound != null) {
+                    outbound.clear();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Ferme les sessions bloquées : sans nouvelle trame, le retard n'est pas vu par {@code sendMessage}.
+     */
+    @Scheduled(fixedDelayString = "${quiz.ws.outbound.sweep-interval-ms:1000}")
+    public void sweep() {
+        sessions.values().forEach(OutboundSession::evictIfLagging);
+    }
+
+    /**
+     * En-têtes utiles d'une trame STOMP MESSAGE ; {@code null} pour les autres trames
+     * (CONNECTED, RECEIPT, ERROR, heart-beat).
+     */
+    static Frame frameOf(WebSocketMessage<?> message) {
+        String head = switch (message) {
+            case TextMessage text -> headerBlock(text.getPayload());
+            case BinaryMessage binary -> headerBlock(binary.getPayload());
+            default -> null;
+        };
+        if (head == null || !head.startsWith("MESSAGE\n")) {
+            return null;
+        }
+        String destination = null;
+        String subscription = null;
+        String type = null;
+        long seq = -1;
+        for (String line : head.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon);
+            String value = line.substring(colon + 1);
+            // STOMP garde la première occurrence d'un en-tête répété
+            if (destination == null && "destination".equals(name)) {
+                destination = value;
+            } else if (subscription == null && "subscription".equals(name)) {
+                subscription = value;
+            } else if (type == null && StompBroadcaster.EVENT_TYPE_HEADER.equals(name)) {
+                type = value;
+            } else if (seq < 0 && StompBroadcaster.EVENT_SEQ_HEADER.equals(name)) {
+                try {
+                    seq = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return destination == null || type == null || seq < 0 ? null : new Frame(destination, subscription, type, seq);
+    }
+
+    private static String headerBlock(String frame) {
+        int end = frame.indexOf("\n\n");
+        return end < 0 ? null : frame.substring(0, end);
+    }
+
+    private static String headerBlock(ByteBuffer frame) {
+        ByteBuffer buffer = frame.duplicate();
+        for (int i = buffer.position(); i + 1 < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n' && buffer.get(i + 1) == '\n') {
+                byte[] head = new byte[i - buffer.position()];
+                buffer.get(head);
+                return new String(head, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    record Frame(String destination, String subscription, String type, long seq) {
+
+        boolean isSnapshot() {
+            return SNAPSHOT.equals(type);
+        }
+
+        /** Contenu dans un snapshot de la même partie, de séquence {@code seq} ou plus. */
+        boolean isCoveredBy(Frame snapshot) {
+            return destination.equals(snapshot.destination) && !QUESTION_ADVANCED.equals(type) && seq <= snapshot.seq;
+        }
+    }
+
+    private record Pending(WebSocketMessage<?> message, Frame frame, long enqueuedAt) {
+    }
+
+    /**
+     * Session vue par STOMP : {@link #sendMessage} range la trame dans la file, un seul thread la vide.
+     */
+    final class OutboundSession extends WebSocketSessionDecorator {
+
+        private final Deque<Pending> queue = new ArrayDeque<>();
+        // trame en cours d'écriture, retirée de la file mais pas encore partie
+        private Pending inFlight;
+        // destinations dont un snapshot a été demandé et n'est pas encore arrivé
+        private final Set<String> resyncing = new HashSet<>();
+        private boolean draining;
+        private boolean evicted;
+
+        OutboundSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            Frame frame = frameOf(message);
+            String reason;
+            boolean resync;
+            synchronized (this) {
+                if (evicted) {
+                    return;
+                }
+                if (frame != null && frame.isSnapshot()) {
+                    resyncing.remove(frame.destination());
+                    if (!conflate(frame)) {
+                        return;
+                    }
+                }
+                queue.addLast(new Pending(message, frame, System.nanoTime()));
+                depth.record(queue.size());
+                reason = overflow();
+                resync = reason == null && queue.size() > resyncQueue && frame != null && !frame.isSnapshot()
+                        && frame.subscription() != null && frame.destination().startsWith(GAME_PREFIX)
+                        && resyncing.add(frame.destination());
+                if (reason == null && !draining) {
+                    draining = true;
+                    senders.execute(this::drain);
+                }
+            }
+            if (reason != null) {
+                evict(reason);
+            } else if (resync) {
+                requestSnapshot(frame);
+            }
+        }
+
+        /**
+         * Demande l'état courant de la partie pour cet abonnement ; à son arrivée, {@link #conflate}
+         * retire les évènements qu'il contient. Hors du thread d'envoi : la partie peut être sur un autre nœud.
+         */
+        private void requestSnapshot(Frame frame) {
+            resyncs.increment();
+            String gameId = frame.destination().substring(GAME_PREFIX.length());
+            senders.execute(() -> {
+                boolean sent = false;
+                try {
+                    sent = subscriptions.sendGameSnapshot(gameId, getId(), frame.subscription(), frame.destination());
+                } catch (RuntimeException e) {
+                    log.debug("Snapshot de resynchronisation impossible pour {} : {}", getId(), e.getMessage());
+                } finally {
+                    if (!sent) {
+                        synchronized (this) {
+                            resyncing.remove(frame.destination());
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Retire de la file ce que {@code snapshot} remplace.
+         * @return false si un snapshot au moins aussi récent attend déjà : {@code snapshot} est inutile
+         */
+        private boolean conflate(Frame snapshot) {
+            for (Iterator<Pending> it = queue.descendingIterator(); it.hasNext(); ) {
+                Frame pending = it.next().frame();
+                if (pending == null || !pending.destination().equals(snapshot.destination())) {
+                    continue;
+                }
+                if (pending.isSnapshot() && pending.seq() >= snapshot.seq()) {
+                    conflated.increment();
+                    return false;
+                }
+                if (!pending.isCoveredBy(snapshot)) {
+                    // changement de question : ce qui précède reste, pour ne pas laisser de trou de séquence
+                    break;
+                }
+                it.remove();
+                conflated.increment();
+            }
+            return true;
+        }
+
+        private String overflow() {
+            if (queue.size() > maxQueue) {
+                return "depth";
+            }
+            Pending oldest = inFlight != null ? inFlight : queue.peekFirst();
+            return oldest != null && System.nanoTime() - oldest.enqueuedAt() > maxLagNanos ? "lag" : null;
+        }
+
+        void evictIfLagging() {
+            String reason;
+            synchronized (this) {
+                reason = evicted ? null : overflow();
+            }
+            if (reason != null) {
+                evict(reason);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    inFlight = null;
+                    next = evicted ? null : queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    inFlight = next;
+                }
+                try {
+                    getDelegate().sendMessage(next.message());
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Envoi impossible sur la session {} : {}", getId(), e.getMessage());
+                    // fermée : ne pas la laisser ouverte sans plus rien lui envoyer
+                    evict("error");
+                    synchronized (this) {
+                        inFlight = null;
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void evict(String reason) {
+            synchronized (this) {
+                if (evicted) {
+                    return;
+                }
+                clear();
+            }
+            switch (reason) {
+                case "depth" -> evictedDepth.increment();
+                case "lag" -> evictedLag.increment();
+                default -> evictedError.increment();
+            }
+            log.warn("Session {} fermée : client trop lent ou injoignable ({})", getId(), reason);
+            try {
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Fermeture de la session {} : {}", getId(), e.getMessage());
+            }
+        }
+
+        synchronized void clear() {
+            evicted = true;
+            queue.clear();
+        }
+
+        synchronized int queued() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.main.triviatreckapp.config;
+
+import com.main.triviatreckapp.service.QuestionCatalog;
+import com.main.triviatreckapp.service.QuestionCatalogService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * /actuator/questioncatalog : version du catalogue en service, durée du dernier
+ * rechargement et nombre de questions par pack.
+ */
+@Component
+@Endpoint(id = "questioncatalog")
+public class QuestionCatalogEndpoint {
+
+    private final QuestionCatalogService questionCatalogService;
+
+    public QuestionCatalogEndpoint(QuestionCatalogService questionCatalogService) {
+        this.questionCatalogService = questionCatalogService;
+    }
+
+    @ReadOperation
+    public CatalogInfo catalog() {
+        QuestionCatalog catalog = questionCatalogService.current();
+        return new CatalogInfo(catalog.getVersion(), catalog.size(),
+                questionCatalogService.getLastReloadAt(),
+                questionCatalogService.getLastReloadDuration().toMillis(),
+                catalog.countByPack());
+    }
+
+    public record CatalogInfo(long version, int questions, Instant reloadedAt, long reloadDurationMs,
+                              Map<String, Integer> packs) {
+    }
+}
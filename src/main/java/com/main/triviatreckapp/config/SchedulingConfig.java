@@ -1,5 +1,6 @@
 package com.main.triviatreckapp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -9,11 +10,16 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 @EnableScheduling
 public class SchedulingConfig {
 
+    /**
+     * Tâches @Scheduled (écritures différées). Les minuteries des parties
+     * passent par GameTimerService.
+     */
     @Bean
-    public ThreadPoolTaskScheduler gameTaskScheduler() {
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(5);                    // nombre de threads dans le pool
+        scheduler.setPoolSize(2);                    // nombre de threads dans le pool
         scheduler.setThreadNamePrefix("quiz-sched-");
+        scheduler.setVirtualThreads(virtualThreads); // les écritures JDBC bloquantes ne retiennent plus de thread
         scheduler.initialize();                      // indispensable pour l’initialisation interne
         return scheduler;
     }
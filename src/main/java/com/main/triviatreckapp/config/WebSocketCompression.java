@@ -0,0 +1,223 @@
+package com.main.triviatreckapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.server.HandshakeHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Compression permessage-deflate (RFC 7692) du transport WebSocket de /ws.
+ * <p>
+ * La négociation est faite au handshake par {@link #handshakeHandler()} : l'extension proposée par le navigateur
+ * est acceptée si {@code quiz.ws.compression.enabled}, en préférant une offre qui garde le contexte du serveur
+ * (pas de {@code server_no_context_takeover}) : le deflater de la connexion est alors réutilisé d'un message
+ * à l'autre et les clés répétées d'un QuizGameDTO à l'autre ne coûtent presque plus rien.
+ * La compression elle-même est faite par le conteneur, pour chaque trame de données de la connexion.
+ * <p>
+ * {@link #decorator()} mesure la taille des trames envoyées et, toutes les {@code sample-every} trames
+ * d'au moins {@code sample-min-size} octets, le taux et le temps de compression d'un deflate équivalent
+ * (sans contexte : le taux réel est au moins aussi bon). Ce deflate est une estimation, refaite à part :
+ * il ne mesure pas celui du conteneur et ne tourne pas sur le thread d'envoi. Les trames retenues passent
+ * par une file bornée vidée par un thread virtuel ; pleine, elle laisse passer l'échantillon.
+ * Les trames plus petites sont comptées à part : c'est la part de trafic pour laquelle la compression
+ * n'apporte rien.
+ */
+@Component
+public class WebSocketCompression {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final int SAMPLE_QUEUE = 32;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int sampleEvery;
+    private final AtomicLong frames = new AtomicLong();
+    private final BlockingQueue<byte[]> samples = new ArrayBlockingQueue<>(SAMPLE_QUEUE);
+    private final AtomicBoolean sampling = new AtomicBoolean();
+    private final ExecutorService sampler =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("ws-deflate-sample").factory());
+    // deflate brut, comme permessage-deflate ; utilisé par le seul thread d'échantillonnage
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final AtomicInteger deflateSessions = new AtomicInteger();
+    private final AtomicInteger plainSessions = new AtomicInteger();
+    private final Counter deflateBytes;
+    private final Counter plainBytes;
+    private final Counter smallFrames;
+    private final DistributionSummary ratio;
+    private final Timer cpu;
+
+    public WebSocketCompression(@Value("${quiz.ws.compression.enabled:true}") boolean enabled,
+                                @Value("${quiz.ws.compression.sample-min-size:1024}") int minSize,
+                                @Value("${quiz.ws.compression.sample-every:16}") int sampleEvery,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        meterRegistry.gauge("quiz.ws.sessions", Tags.of("extension", PERMESSAGE_DEFLATE), deflateSessions);
+        meterRegistry.gauge("quiz.ws.sessions", Tags.of("extension", "none"), plainSessions);
+        this.deflateBytes = Counter.builder("quiz.ws.frames.bytes")
+                .description("Octets envoyés avant compression")
+                .baseUnit("bytes")
+                .tags("extension", PERMESSAGE_DEFLATE)
+                .register(meterRegistry);
+        this.plainBytes = Counter.builder("quiz.ws.frames.bytes")
+                .description("Octets envoyés avant compression")
+                .baseUnit("bytes")
+                .tags("extension", "none")
+                .register(meterRegistry);
+        this.smallFrames = Counter.builder("quiz.ws.compression.small")
+                .description("Trames compressées trop petites pour être échantillonnées")
+                .register(meterRegistry);
+        this.ratio = DistributionSummary.builder("quiz.ws.compression.ratio")
+                .description("Taille compressée / taille d'origine, sur les trames échantillonnées")
+                .register(meterRegistry);
+        this.cpu = Timer.builder("quiz.ws.compression.cpu")
+                .description("Estimation : temps d'un deflate à part d'une trame échantillonnée, hors thread d'envoi")
+                .register(meterRegistry);
+    }
+
+    public HandshakeHandler handshakeHandler() {
+        return new DefaultHandshakeHandler() {
+            @Override
+            protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                         List<WebSocketExtension> requested,
+                                                                         List<WebSocketExtension> supported) {
+                return super.filterRequestedExtensions(request, negotiate(requested), supported);
+            }
+        };
+    }
+
+    /**
+     * Offres retenues, dans l'ordre où le conteneur les essaiera : aucune si la compression est désactivée,
+     * sinon celles qui gardent le contexte du serveur d'abord.
+     */
+    List<WebSocketExtension> negotiate(List<WebSocketExtension> requested) {
+        if (!enabled) {
+            return requested.stream().filter(e -> !PERMESSAGE_DEFLATE.equals(e.getName())).toList();
+        }
+        // tri stable : l'ordre de préférence du client est conservé à contexte égal
+        return requested.stream()
+                .sorted(Comparator.comparing(e -> PERMESSAGE_DEFLATE.equals(e.getName())
+                        && e.getParameters().containsKey(SERVER_NO_CONTEXT_TAKEOVER)))
+                .toList();
+    }
+
+    public WebSocketHandlerDecoratorFactory decorator() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                counter(session).incrementAndGet();
+                super.afterConnectionEstablished(new MeasuredSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                counter(session).decrementAndGet();
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private AtomicInteger counter(WebSocketSession session) {
+        return isDeflated(session) ? deflateSessions : plainSessions;
+    }
+
+    private static boolean isDeflated(WebSocketSession session) {
+        return session.getExtensions().stream().anyMatch(e -> PERMESSAGE_DEFLATE.equals(e.getName()));
+    }
+
+    void record(byte[] payload, boolean deflated) {
+        if (!deflated) {
+            plainBytes.increment(payload.length);
+            return;
+        }
+        deflateBytes.increment(payload.length);
+        if (payload.length < minSize) {
+            smallFrames.increment();
+        } else if (frames.incrementAndGet() % sampleEvery == 0 && samples.offer(payload)
+                && sampling.compareAndSet(false, true)) {
+            sampler.execute(this::drainSamples);
+        }
+    }
+
+    private void drainSamples() {
+        while (true) {
+            byte[] payload;
+            while ((payload = samples.poll()) != null) {
+                sample(payload);
+            }
+            sampling.set(false);
+            // un échantillon arrivé entre le dernier poll et le drapeau est repris ici
+            if (samples.isEmpty() || !sampling.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void sample(byte[] payload) {
+        try {
+            long start = System.nanoTime();
+            deflater.setInput(payload);
+            byte[] buffer = new byte[payload.length + 64];
+            int compressed = 0;
+            int n;
+            while ((n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH)) > 0) {
+                compressed += n;
+            }
+            long elapsed = System.nanoTime() - start;
+            ratio.record((double) compressed / payload.length);
+            cpu.record(elapsed, TimeUnit.NANOSECONDS);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Session vue par STOMP : chaque trame envoyée passe par {@link #record}.
+     */
+    private final class MeasuredSession extends WebSocketSessionDecorator {
+
+        private final boolean deflated;
+
+        MeasuredSession(WebSocketSession session) {
+            super(session);
+            this.deflated = isDeflated(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (message instanceof TextMessage text) {
+                record(text.asBytes(), deflated);
+            }
+            super.sendMessage(message);
+        }
+    }
+}
@@ -1,44 +1,108 @@
 package com.main.triviatreckapp.config;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketSubscriptionInterceptor subscriptionInterceptor;
+    private final ObjectMapper objectMapper;
+    private final WireFormatNegotiator wireFormats;
+    private final WebSocketCompression compression;
+    private final BrokerRelay brokerRelay;
+    private final OutboundConflation outboundConflation;
+
+    // mode opt-in : canaux STOMP et planificateurs sur threads virtuels
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
-    public WebSocketConfig(@Lazy WebSocketSubscriptionInterceptor subscriptionInterceptor) {
+    public WebSocketConfig(@Lazy WebSocketSubscriptionInterceptor subscriptionInterceptor, ObjectMapper objectMapper,
+                           WireFormatNegotiator wireFormats, WebSocketCompression compression,
+                           BrokerRelay brokerRelay, OutboundConflation outboundConflation) {
         this.subscriptionInterceptor = subscriptionInterceptor;
+        this.objectMapper = objectMapper;
+        this.wireFormats = wireFormats;
+        this.compression = compression;
+        this.brokerRelay = brokerRelay;
+        this.outboundConflation = outboundConflation;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/chatroom", "/game", "/user")
-                // le serveur attend un beat du client toutes les 20 s
-                .setHeartbeatValue(new long[] {20_000, 20_000})
-                // nécessaire pour déclencher le contrôle de heart-beat
-                .setTaskScheduler(heartBeatScheduler());
+        if (brokerRelay.isEnabled()) {
+            // broker externe partagé par les nœuds ; /topic porte le registre des utilisateurs entre nœuds
+            brokerRelay.configure(config, "/chatroom", "/game", "/queue", "/topic");
+        } else {
+            config.enableSimpleBroker("/chatroom", "/game", "/user", "/queue")
+                    // le serveur attend un beat du client toutes les 20 s
+                    .setHeartbeatValue(new long[] {20_000, 20_000})
+                    // nécessaire pour déclencher le contrôle de heart-beat
+                    .setTaskScheduler(heartBeatScheduler());
+        }
         config.setApplicationDestinationPrefixes("/app");
+        // un thread par message : sans cela deux messages d'une session pourraient se doubler
+        config.setPreservePublishOrder(virtualThreads);
+    }
+
+    // JSON compact pour les réponses STOMP (@SendTo, @SendToUser) : l'indentation des réponses REST n'a rien à faire ici
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.addFirst(new MappingJackson2MessageConverter(
+                objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT)));
+        // SEND en CBOR ou Smile, selon leur content-type
+        messageConverters.addAll(1, List.of(wireFormats.converters()));
+        return true;
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(subscriptionInterceptor);
+        registration.interceptors(wireFormats, subscriptionInterceptor);
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-in-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(wireFormats.outbound());
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-out-"));
+        }
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws").setAllowedOriginPatterns("https://triviatrek.onrender.com").withSockJS();
+        // permessage-deflate négocié au handshake du transport WebSocket
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("https://triviatrek.onrender.com")
+                .setHandshakeHandler(compression.handshakeHandler())
+                .withSockJS();
+        registry.setPreserveReceiveOrder(virtualThreads);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // file d'envoi par session, au plus près de STOMP : la compression ne mesure que ce qui part vraiment
+        registration.addDecoratorFactory(outboundConflation.decorator());
+        registration.addDecoratorFactory(compression.decorator());
     }
 
     @Bean
@@ -46,8 +110,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(1);
         scheduler.setThreadNamePrefix("ws-heartbeat-");
+        scheduler.setVirtualThreads(virtualThreads);
         scheduler.initialize();
         return scheduler;
     }
 
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
 }
@@ -1,30 +1,36 @@
 package com.main.triviatreckapp.config;
 
-import com.main.triviatreckapp.dto.QuizGameDTO;
-import com.main.triviatreckapp.dto.RoomDTO;
-import com.main.triviatreckapp.service.QuizGameService;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import com.main.triviatreckapp.service.GameCommandRouter;
 import com.main.triviatreckapp.service.RoomService;
+import com.main.triviatreckapp.service.SnapshotCache;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
+/**
+ * Envoie l'état courant au nouvel abonné de /chatroom/{roomId} ou /game/{gameId},
+ * au seul abonnement qui vient d'être créé. Le snapshot vient de {@link SnapshotCache}.
+ */
 @Component
 public class WebSocketSubscriptionInterceptor implements ChannelInterceptor {
 
     private final RoomService roomService;
-    private final QuizGameService quizGameService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final GameCommandRouter games;
+    private final SnapshotCache snapshots;
 
     public WebSocketSubscriptionInterceptor(RoomService roomService, 
-                                           QuizGameService quizGameService,
-                                           SimpMessagingTemplate messagingTemplate) {
+                                           GameCommandRouter games,
+                                           SnapshotCache snapshots) {
         this.roomService = roomService;
-        this.quizGameService = quizGameService;
-        this.messagingTemplate = messagingTemplate;
+        this.games = games;
+        this.snapshots = snapshots;
     }
 
     @Override
@@ -39,13 +45,16 @@ public class WebSocketSubscriptionInterceptor implements ChannelInterceptor {
                 // Handle /chatroom/{roomId} subscriptions
                 if (destination.startsWith("/chatroom/")) {
                     String roomId = extractId(destination, "/chatroom/");
-                    if (roomId != null && roomService.getRoom(roomId).isPresent()) {
+                    if (roomId != null) {
                         try {
-                            // Get room data
-                            RoomDTO roomDTO = roomService.getRoomDTO(roomId);
-
-                            // Send room data to the subscriber
-                            messagingTemplate.convertAndSend(destination, roomDTO);
+                            // absent si la room n'existe pas
+                            snapshots.send(SnapshotCache.Kind.ROOM, roomId,
+                                    () -> roomService.findRoomDTO(roomId).map(room -> {
+                                        RoomEventDTO.Snapshot snapshot = new RoomEventDTO.Snapshot(room);
+                                        snapshot.setRoomId(roomId);
+                                        return snapshot;
+                                    }),
+                                    accessor.getSessionId(), accessor.getSubscriptionId(), destination);
                         } catch (Exception e) {
                             // Log error but don't block subscription
                             System.err.println("Error sending room data on subscription: " + e.getMessage());
@@ -55,13 +64,11 @@ public class WebSocketSubscriptionInterceptor implements ChannelInterceptor {
                 // Handle /game/{gameId} subscriptions
                 else if (destination.startsWith("/game/")) {
                     String gameId = extractId(destination, "/game/");
-                    if (gameId != null && quizGameService.getGame(gameId).isPresent()) {
+                    if (gameId != null) {
                         try {
-                            // Get game data
-                            QuizGameDTO gameDTO = quizGameService.getQuizGameDTO(gameId);
-
-                            // Send game data to the subscriber
-                            messagingTemplate.convertAndSend(destination, gameDTO);
+                            // Snapshot envoyé au seul nouvel abonné, les évènements suivent
+                            sendGameSnapshot(gameId, accessor.getSessionId(), accessor.getSubscriptionId(),
+                                    destination);
                         } catch (Exception e) {
                             // Log error but don't block subscription
                             System.err.println("Error sending game data on subscription: " + e.getMessage());
@@ -74,6 +81,22 @@ public class WebSocketSubscriptionInterceptor implements ChannelInterceptor {
         return message;
     }
 
+    /**
+     * Envoie l'état courant de la partie au seul abonnement {@code subscriptionId} de la session :
+     * à l'abonnement, ou quand sa file d'envoi prend du retard ({@link OutboundConflation}).
+     * @return false si la partie n'existe pas
+     */
+    public boolean sendGameSnapshot(String gameId, String sessionId, String subscriptionId, String destination) {
+        if (games.isLocal(gameId)) {
+            return snapshots.send(SnapshotCache.Kind.GAME, gameId, () -> games.snapshot(gameId),
+                    sessionId, subscriptionId, destination);
+        }
+        // partie tenue par un autre nœud : demandée à son propriétaire, pas de cache ici
+        Optional<GameEventDTO.Snapshot> snapshot = games.snapshot(gameId);
+        snapshot.ifPresent(s -> snapshots.sendUncached(s, sessionId, subscriptionId, destination));
+        return snapshot.isPresent();
+    }
+
     private String extractId(String destination, String prefix) {
         if (destination.startsWith(prefix)) {
             return destination.substring(prefix.length());
@@ -0,0 +1,229 @@
+package com.main.triviatreckapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Format binaire optionnel pour le trafic STOMP.
+ * <p>
+ * Le client annonce ses préférences au CONNECT, par ordre décroissant :
+ * {@code accept-content-type: application/cbor, application/json}. Sans cet en-tête, tout reste en JSON.
+ * Les messages sortants sont produits en JSON, sérialisés une fois ({@link com.main.triviatreckapp.service.StompBroadcaster})
+ * et partagés entre abonnés ; pour une session CBOR ou Smile, ce JSON est transcodé au moment de l'envoi.
+ * Le résultat est gardé par identité du tableau source : une diffusion à 50 joueurs CBOR donne un transcodage.
+ * <p>
+ * Dans l'autre sens, le client envoie ses SEND avec {@code content-type: application/cbor}
+ * (ou Smile) et les convertisseurs déclarés par {@link #converters()} les lisent.
+ * <p>
+ * L'instance s'inscrit sur le canal entrant ; {@link #outbound()} sur le canal sortant.
+ */
+@Component
+public class WireFormatNegotiator implements ChannelInterceptor {
+
+    public static final String ACCEPT_HEADER = "accept-content-type";
+    private static final int TRANSCODED_CAPACITY = 1024;
+
+    public enum WireFormat {
+        JSON(MimeTypeUtils.APPLICATION_JSON),
+        CBOR(new MimeType("application", "cbor")),
+        SMILE(new MimeType("application", "x-jackson-smile"));
+
+        private final MimeType mimeType;
+
+        WireFormat(MimeType mimeType) {
+            this.mimeType = mimeType;
+        }
+
+        public MimeType getMimeType() {
+            return mimeType;
+        }
+    }
+
+    private final ObjectMapper jsonMapper;
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final Map<String, WireFormat> sessions = new ConcurrentHashMap<>();
+    private final Map<Source, byte[]> transcoded = new ConcurrentHashMap<>();
+    private final Queue<Source> transcodedOrder = new ConcurrentLinkedQueue<>();
+    private final Map<WireFormat, Counter> transcodes = new EnumMap<>(WireFormat.class);
+    private final Map<WireFormat, Counter> reused = new EnumMap<>(WireFormat.class);
+
+    public WireFormatNegotiator(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jsonMapper = objectMapper;
+        mappers.put(WireFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+        // table de chaînes partagée : les valeurs répétées (pseudos, catégories) ne sont écrites qu'une fois
+        mappers.put(WireFormat.SMILE, objectMapper.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()));
+        for (WireFormat format : WireFormat.values()) {
+            String tag = format.name().toLowerCase(Locale.ROOT);
+            meterRegistry.gauge("quiz.wire.sessions", Tags.of("format", tag), sessions,
+                    s -> s.values().stream().filter(format::equals).count());
+            if (format != WireFormat.JSON) {
+                transcodes.put(format, Counter.builder("quiz.wire.transcode")
+                        .description("Messages sortants transcodés depuis le JSON")
+                        .tags("format", tag, "result", "encoded")
+                        .register(meterRegistry));
+                reused.put(format, Counter.builder("quiz.wire.transcode")
+                        .description("Messages sortants transcodés depuis le JSON")
+                        .tags("format", tag, "result", "reused")
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * Convertisseurs des SEND binaires, à placer après le convertisseur JSON :
+     * sans content-type, c'est toujours le JSON qui s'applique.
+     */
+    public MappingJackson2MessageConverter[] converters() {
+        return mappers.entrySet().stream().map(e -> {
+            MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(e.getKey().getMimeType());
+            converter.setObjectMapper(e.getValue());
+            converter.setStrictContentTypeMatch(true);
+            return converter;
+        }).toArray(MappingJackson2MessageConverter[]::new);
+    }
+
+    public WireFormat formatOf(String sessionId) {
+        return sessionId == null ? WireFormat.JSON : sessions.getOrDefault(sessionId, WireFormat.JSON);
+    }
+
+    /**
+     * Entrant : lit les préférences du CONNECT.
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() == SimpMessageType.CONNECT && accessor.getSessionId() != null) {
+            WireFormat format = negotiate(StompHeaderAccessor.wrap(message).getFirstNativeHeader(ACCEPT_HEADER));
+            if (format != WireFormat.JSON) {
+                sessions.put(accessor.getSessionId(), format);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Intercepteur du canal sortant : remplace le JSON par le format de la session.
+     */
+    public ChannelInterceptor outbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return encodeForSession(message);
+            }
+        };
+    }
+
+    Message<?> encodeForSession(Message<?> message) {
+        // session JSON (le cas courant) : rien à copier
+        WireFormat format = formatOf(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (format == WireFormat.JSON || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || contentType == null
+                || !WireFormat.JSON.getMimeType().equalsTypeAndSubtype(contentType)) {
+            return message;
+        }
+        // wrap a copié les en-têtes : la modification ne touche pas le message partagé par le broker
+        accessor.setContentType(format.getMimeType());
+        return MessageBuilder.createMessage(transcode(json, format), accessor.getMessageHeaders());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    byte[] transcode(byte[] json, WireFormat format) {
+        Source source = new Source(json, format);
+        byte[] cached = transcoded.get(source);
+        if (cached != null) {
+            reused.get(format).increment();
+            return cached;
+        }
+        byte[] payload = transcoded.computeIfAbsent(source, s -> {
+            transcodes.get(format).increment();
+            transcodedOrder.add(s);
+            try {
+                return mappers.get(format).writeValueAsBytes(jsonMapper.readTree(json));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (transcoded.size() > TRANSCODED_CAPACITY) {
+            Source oldest = transcodedOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            transcoded.remove(oldest);
+        }
+        return payload;
+    }
+
+    static WireFormat negotiate(String accept) {
+        if (accept == null) {
+            return WireFormat.JSON;
+        }
+        for (MimeType mimeType : MimeTypeUtils.parseMimeTypes(accept)) {
+            for (WireFormat format : WireFormat.values()) {
+                if (format.getMimeType().equalsTypeAndSubtype(mimeType)) {
+                    return format;
+                }
+            }
+        }
+        return WireFormat.JSON;
+    }
+
+    /**
+     * Clé du cache de transcodage : le tableau JSON partagé, comparé par identité.
+     */
+    private static final class Source {
+        private final byte[] json;
+        private final WireFormat format;
+
+        Source(byte[] json, WireFormat format) {
+            this.json = json;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Source other && other.json == json && other.format == format;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(json) * 31 + format.hashCode();
+        }
+    }
+}
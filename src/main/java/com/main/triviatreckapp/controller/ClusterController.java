@@ -0,0 +1,86 @@
+package com.main.triviatreckapp.controller;
+
+import com.main.triviatreckapp.Request.PlayerJokerRequest;
+import com.main.triviatreckapp.Request.StartGameRequest;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.GameProgressDTO;
+import com.main.triviatreckapp.dto.PlayerAnswerDTO;
+import com.main.triviatreckapp.dto.QuizGameDTO;
+import com.main.triviatreckapp.service.QuizGameService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Commandes transmises par les autres nœuds au propriétaire d'une partie
+ * ({@link com.main.triviatreckapp.service.GameCommandRouter}) : exécutées ici sans nouveau routage.
+ * Absent sur un nœud seul ({@code quiz.cluster.nodes} vide) ; sinon chaque appel doit porter
+ * le secret du cluster ({@link com.main.triviatreckapp.config.ClusterSecretFilter}).
+ * Le répartiteur ne doit pas non plus exposer /internal.
+ */
+@ConditionalOnExpression("!'${quiz.cluster.nodes:}'.isBlank()")
+@RequestMapping("/internal/games/{gameId}")
+@RestController
+public class ClusterController {
+    private final QuizGameService gameService;
+
+    public ClusterController(QuizGameService gameService, @Value("${quiz.cluster.secret:}") String secret) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("quiz.cluster.secret est requis quand quiz.cluster.nodes est renseigné");
+        }
+        this.gameService = gameService;
+    }
+
+    @PostMapping("/start")
+    public void start(@PathVariable String gameId, @RequestBody StartGameRequest request) {
+        gameService.startQuizGameDTO(gameId, request);
+    }
+
+    @PostMapping("/join")
+    public void join(@PathVariable String gameId, @RequestBody Long participantId) {
+        gameService.enterQuizGame(gameId, participantId);
+    }
+
+    @PostMapping("/leave")
+    public void leave(@PathVariable String gameId, @RequestBody Long participantId) {
+        gameService.removeParticipantFromGame(gameId, participantId);
+    }
+
+    @PostMapping("/answer")
+    public void answer(@PathVariable String gameId, @RequestBody PlayerAnswerDTO answer) {
+        gameService.processAnswerDTO(gameId, answer);
+    }
+
+    @PostMapping("/joker")
+    public void joker(@PathVariable String gameId, @RequestBody PlayerJokerRequest joker) {
+        gameService.processJoker(gameId, joker);
+    }
+
+    // l'ancien propriétaire a écrit la partie : on la recharge et la numérotation continue
+    @PostMapping("/handoff")
+    public void handoff(@PathVariable String gameId, @RequestParam long seq) {
+        gameService.takeOverGame(gameId, seq);
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<GameEventDTO.Snapshot> snapshot(@PathVariable String gameId) {
+        return ResponseEntity.of(gameService.getSnapshot(gameId));
+    }
+
+    @GetMapping("/progress")
+    public ResponseEntity<GameProgressDTO> progress(@PathVariable String gameId, @RequestParam String username) {
+        return ResponseEntity.of(gameService.getProgress(gameId, username));
+    }
+
+    @GetMapping
+    public QuizGameDTO quizGame(@PathVariable String gameId) {
+        return gameService.getQuizGameDTO(gameId);
+    }
+}
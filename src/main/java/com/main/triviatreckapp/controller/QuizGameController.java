@@ -2,63 +2,67 @@ package com.main.triviatreckapp.controller;
 
 import com.main.triviatreckapp.Request.PlayerJokerRequest;
 import com.main.triviatreckapp.Request.StartGameRequest;
+import com.main.triviatreckapp.dto.GameEventDTO;
 import com.main.triviatreckapp.dto.PlayerAnswerDTO;
 import com.main.triviatreckapp.dto.QuizGameDTO;
-import com.main.triviatreckapp.service.QuizGameService;
+import com.main.triviatreckapp.service.GameCommandRouter;
 
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import java.util.Optional;
-
 @Controller
 public class QuizGameController {
-  private final QuizGameService gameService;
-    public QuizGameController(QuizGameService gameService) {
+  // chaque partie est tenue par un seul nœud : le routeur transmet si ce n'est pas celui-ci
+  private final GameCommandRouter gameService;
+    public QuizGameController(GameCommandRouter gameService) {
       this.gameService = gameService;
     }
 
 
-    // Lancement d'une partie dans la room
+    // Lancement d'une partie dans la room : le service diffuse le snapshot initial
   @MessageMapping("/game/startQuiz/{gameId}")
-  @SendTo("/game/{gameId}")
-  public QuizGameDTO startQuizGame(@DestinationVariable String gameId, @Payload StartGameRequest payload) {
-      return gameService.startQuizGameDTO(gameId, payload);
+  public void startQuizGame(@DestinationVariable String gameId, @Payload StartGameRequest payload) {
+      gameService.start(gameId, payload);
 
   }
 
 
     @MessageMapping("/game/join/{gameId}")
-    @SendTo("/game/{gameId}")
-    public QuizGameDTO joinGame(@DestinationVariable String gameId, @Payload Long participantId) {
-      return gameService.enterQuizGame(gameId, participantId);
+    public void joinGame(@DestinationVariable String gameId, @Payload Long participantId) {
+      gameService.join(gameId, participantId);
     }
 
     @MessageMapping("/game/leave/{gameId}")
-    @SendTo("/game/{gameId}")
-    public Optional<QuizGameDTO> leaveGame(@DestinationVariable String gameId, @Payload Long participantId) {
-        return gameService.removeParticipantFromGame(gameId, participantId);
+    public void leaveGame(@DestinationVariable String gameId, @Payload Long participantId) {
+        gameService.leave(gameId, participantId);
 
     }
 
-    // Réception d'une réponse d'un joueur
+    // Réception d'une réponse d'un joueur : les évènements sont diffusés par le service
   @MessageMapping("/game/answer/{gameId}")
-  @SendTo("/game/{gameId}")
-  public QuizGameDTO processAnswer(@DestinationVariable String gameId,
-                                  @Payload PlayerAnswerDTO playerAnswer) {
-      return gameService.processAnswerDTO(gameId, playerAnswer);
+  public void processAnswer(@DestinationVariable String gameId,
+                            @Payload PlayerAnswerDTO playerAnswer) {
+      gameService.answer(gameId, playerAnswer);
+  }
+
+    // Resynchronisation : le snapshot est renvoyé une seule fois à l'abonné
+  @SubscribeMapping("/game/snapshot/{gameId}")
+  public GameEventDTO.Snapshot resync(@DestinationVariable String gameId) {
+      return gameService.snapshot(gameId)
+              .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
   }
 
   @GetMapping("/games/{gameId}")
   @ResponseBody
   public QuizGameDTO getQuizGame(@PathVariable String gameId) {
-      return gameService.getQuizGameDTO(gameId);
+      return gameService.quizGame(gameId);
   }
 
 
@@ -66,6 +70,6 @@ public class QuizGameController {
   @SendTo("/game/{gameId}")
   public void processJoker(@DestinationVariable String gameId,
                                    @Payload PlayerJokerRequest joker) {
-    gameService.processJoker(gameId, joker);
+    gameService.joker(gameId, joker);
   }
 }
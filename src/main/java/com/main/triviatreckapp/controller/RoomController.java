@@ -1,52 +1,119 @@
 package com.main.triviatreckapp.controller;
 
 import com.main.triviatreckapp.Request.JoinRoomRequest;
+import com.main.triviatreckapp.dto.MessageDTO;
 import com.main.triviatreckapp.dto.RoomDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
 import com.main.triviatreckapp.entities.Message;
+import com.main.triviatreckapp.service.DisconnectProcessor;
+import com.main.triviatreckapp.service.GameCommandRouter;
+import com.main.triviatreckapp.service.RoomJoinCoalescer;
 import com.main.triviatreckapp.service.RoomService;
+import com.main.triviatreckapp.service.SessionRegistry;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class RoomController {
     private final RoomService roomService;
-    public RoomController(RoomService roomService) { this.roomService = roomService;}
+    private final RoomJoinCoalescer roomJoins;
+    private final DisconnectProcessor disconnects;
+    private final SessionRegistry sessions;
+    private final GameCommandRouter quizGames;
+    public RoomController(RoomService roomService, RoomJoinCoalescer roomJoins, DisconnectProcessor disconnects,
+                          SessionRegistry sessions, GameCommandRouter quizGames) { this.roomService = roomService;
+        this.roomJoins = roomJoins;
+        this.disconnects = disconnects;
+        this.sessions = sessions;
+        this.quizGames = quizGames;
+    }
 
+    // la room reçoit un RosterDelta ; l'état complet ne part qu'au nouveau venu, sur /user/queue/room
     @MessageMapping("/join/{roomId}")
-    @SendTo("/chatroom/{roomId}")
-    public RoomDTO joinRoom(@DestinationVariable String roomId, @Payload JoinRoomRequest joinRoomRequest, SimpMessageHeaderAccessor messageHeaderAccessor) {
-        // 1) On calcule d'abord le pseudo unique
-        String uniqueUser = roomService.getUniqueUserName(roomId, joinRoomRequest.getUsername());
+    @SendToUser(destinations = "/queue/room", broadcast = false)
+    public CompletableFuture<RoomEventDTO> joinRoom(@DestinationVariable String roomId, @Payload JoinRoomRequest joinRoomRequest, SimpMessageHeaderAccessor messageHeaderAccessor) {
+        String sessionId = messageHeaderAccessor.getSessionId();
+        Map<String, Object> sessionAttributes = Objects.requireNonNull(messageHeaderAccessor.getSessionAttributes());
+        sessionAttributes.put("roomId", roomId);
+
+        // 0) Reprise avec un jeton valide : même pseudo, même score, rien à écrire, un simple rattrapage
+        if (joinRoomRequest.getResumeToken() != null) {
+            Optional<RoomEventDTO.Resumed> resumed = resume(roomId, joinRoomRequest, sessionId);
+            if (resumed.isPresent()) {
+                sessionAttributes.put("username", resumed.get().getUsername());
+                return CompletableFuture.completedFuture(resumed.get());
+            }
+        }
+
+        // 1) On réserve d'abord le pseudo unique
+        String uniqueUser = roomService.reserveUserName(roomId, joinRoomRequest.getUsername());
 
         // 2) On stocke ce pseudo en session
-        Objects.requireNonNull(messageHeaderAccessor.getSessionAttributes())
-                .put("roomId", roomId);
-        messageHeaderAccessor.getSessionAttributes()
-                .put("username", uniqueUser);
+        sessionAttributes.put("username", uniqueUser);
+
+        // 3) Puis on ajoute vraiment l'utilisateur, groupé avec les arrivées simultanées
+        return roomJoins.join(roomId, uniqueUser, joinRoomRequest.getTempId())
+                .thenApply(room -> joined(roomId, room, uniqueUser, sessionId));
+    }
+
+    private RoomEventDTO joined(String roomId, RoomDTO room, String username, String sessionId) {
+        RoomEventDTO.Snapshot snapshot = new RoomEventDTO.Snapshot(room);
+        snapshot.setRoomId(roomId);
+        room.getParticipants().stream()
+                .filter(p -> p.getUsername().equals(username))
+                .findFirst()
+                .ifPresent(p -> snapshot.setResumeToken(sessions.open(roomId, username, p.getParticipantId(), sessionId)));
+        return snapshot;
+    }
 
-        // 3) Puis on ajoute vraiment l'utilisateur optimisé
-        return roomService.addUserToRoom(roomId, uniqueUser, joinRoomRequest.getTempId());
+    /**
+     * Jeton invalide, autre room, place libérée : vide, et le client refait une arrivée normale.
+     */
+    private Optional<RoomEventDTO.Resumed> resume(String roomId, JoinRoomRequest request, String sessionId) {
+        return sessions.resolve(request.getResumeToken())
+                .filter(seat -> seat.roomId().equals(roomId))
+                .filter(seat -> disconnects.reclaim(roomId, seat.username()))
+                .flatMap(seat -> sessions.resume(seat, sessionId)
+                        .flatMap(token -> roomService.findRoomDTO(roomId, request.getLastMessageId())
+                                .map(room -> {
+                                    RoomEventDTO.Resumed resumed = new RoomEventDTO.Resumed(seat.username(),
+                                            seat.participantId(), token, room.getParticipants(), room.getMessages(),
+                                            room.isActiveGame(), room.isActiveGame()
+                                            ? quizGames.progress(room.getGameId(), seat.username()).orElse(null)
+                                            : null);
+                                    resumed.setRoomId(roomId);
+                                    return resumed;
+                                })));
     }
 
 
+    // diffusé en RoomEventDTO.Chat par ChatService
     @MessageMapping("/sendMessage/{roomId}")
-    @SendTo("/chatroom/{roomId}")
-    public RoomDTO sendMessageToRoom(@DestinationVariable String roomId, @Payload Message chatMessage) {
-        return roomService.submitMessageToRoom(roomId, chatMessage);
+    public void sendMessageToRoom(@DestinationVariable String roomId, @Payload Message chatMessage) {
+        roomService.submitMessageToRoom(roomId, chatMessage);
     }
 
+    // diffusé en RoomEventDTO.RosterDelta (+ message SYSTEM)
     @MessageMapping("/leave/{roomId}")
-    @SendTo("/chatroom/{roomId}")
-    public Optional<RoomDTO> leaveRoom(@DestinationVariable String roomId, @Payload String user) {
-        return roomService.removeParticipantAndCheckRoomStatus(roomId, user);
+    public void leaveRoom(@DestinationVariable String roomId, @Payload String user, SimpMessageHeaderAccessor messageHeaderAccessor) {
+        roomService.removeParticipantAndCheckRoomStatus(roomId, user);
+        sessions.close(roomId, user);
+        // départ volontaire : la déconnexion qui suit n'a plus de place à garder
+        Map<String, Object> sessionAttributes = messageHeaderAccessor.getSessionAttributes();
+        if (sessionAttributes != null) {
+            sessionAttributes.remove("roomId");
+        }
 
     }
 
@@ -57,6 +124,18 @@ public class RoomController {
     }
 
 
+    /**
+     * Historique du chat, du plus ancien au plus récent.
+     * Pour la page précédente, rappeler avec before = id du premier message reçu.
+     */
+    @GetMapping("/rooms/{roomId}/messages")
+    @ResponseBody
+    public List<MessageDTO> getMessages(@PathVariable String roomId,
+                                        @RequestParam(required = false) Long before,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        return roomService.getMessages(roomId, before, limit);
+    }
+
     @GetMapping("/games/")
     public String[] getGames() {
         return new String[]{"quiz"};
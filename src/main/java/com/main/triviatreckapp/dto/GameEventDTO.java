@@ -0,0 +1,91 @@
+package com.main.triviatreckapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Évènement publié sur /game/{gameId}.
+ * Chaque évènement porte un numéro de séquence croissant par partie ; un {@link Snapshot}
+ * porte le numéro du dernier évènement qu'il inclut. Un client qui constate un trou
+ * dans la séquence s'abonne à /app/game/snapshot/{gameId} pour se resynchroniser.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = GameEventDTO.Snapshot.class, name = "Snapshot"),
+        @JsonSubTypes.Type(value = GameEventDTO.ScoreChanged.class, name = "ScoreChanged"),
+        @JsonSubTypes.Type(value = GameEventDTO.PlayerAnswered.class, name = "PlayerAnswered"),
+        @JsonSubTypes.Type(value = GameEventDTO.QuestionAdvanced.class, name = "QuestionAdvanced"),
+        @JsonSubTypes.Type(value = GameEventDTO.ParticipantJoined.class, name = "ParticipantJoined"),
+        @JsonSubTypes.Type(value = GameEventDTO.ParticipantLeft.class, name = "ParticipantLeft")
+})
+public abstract class GameEventDTO {
+    private String gameId;
+    private long seq;
+
+    /** État complet de la partie. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Snapshot extends GameEventDTO {
+        private QuizGameDTO game;
+    }
+
+    /** Nouveau score d'un joueur. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreChanged extends GameEventDTO {
+        private String player;
+        private int score;
+        private int delta;
+    }
+
+    /** Un joueur a répondu à la question courante. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerAnswered extends GameEventDTO {
+        private Long participantId;
+        private String username;
+        private boolean waitingForNext;
+    }
+
+    /** Passage à la question suivante ; currentQuestion est null quand la partie est finie. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuestionAdvanced extends GameEventDTO {
+        private int currentQuestionIndex;
+        private QuestionDTO currentQuestion;
+        private boolean finished;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ParticipantJoined extends GameEventDTO {
+        private Long participantId;
+        private String username;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ParticipantLeft extends GameEventDTO {
+        private Long participantId;
+        private String username;
+    }
+}
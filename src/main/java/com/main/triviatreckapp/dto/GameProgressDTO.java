@@ -0,0 +1,22 @@
+package com.main.triviatreckapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progression d'une partie vue par un joueur : de quoi reprendre sans le {@link QuizGameDTO} complet.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameProgressDTO {
+    private String gameId;
+    private long seq;
+    private int currentQuestionIndex;
+    private boolean waitingForNext;
+    private boolean finished;
+    private int score;
+}
@@ -1,22 +1,26 @@
 package com.main.triviatreckapp.dto;
 
+import com.main.triviatreckapp.entities.Message;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class MessageDTO {
+        private Long id;            // curseur de pagination (before=id)
         private String roomId;
         private String sender;
         private String content;
+        private Instant createdAt;
 
+        public static MessageDTO fromEntity(Message m) {
+                return new MessageDTO(m.getId(), m.getRoomId(), m.getSender(), m.getContent(), m.getCreatedAt());
+        }
 }
-
-
-
-
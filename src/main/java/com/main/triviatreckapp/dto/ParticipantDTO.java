@@ -15,4 +15,9 @@ public class ParticipantDTO {
     private int delaiReponse;
     private String tempId;
 
+    /** Projection de la liste des participants : id et pseudo, le délai n'est jamais renseigné. */
+    public ParticipantDTO(Long participantId, String username) {
+        this.participantId = participantId;
+        this.username = username;
+    }
 }
@@ -18,4 +18,10 @@ public class RoomDTO {
     public String gameId;
     public boolean activeGame;
 
+    /** Projection de l'en-tête de la room ; participants et messages sont lus à part. */
+    public RoomDTO(String roomId, String gameId, boolean activeGame) {
+        this.roomId = roomId;
+        this.gameId = gameId;
+        this.activeGame = activeGame;
+    }
 }
@@ -0,0 +1,99 @@
+package com.main.triviatreckapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Évènement publié sur /chatroom/{roomId}.
+ * Un message de chat, un changement de participants et un changement d'état de partie
+ * sont des évènements distincts : un message n'entraîne plus l'envoi de toute la room.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = RoomEventDTO.Snapshot.class, name = "Snapshot"),
+        @JsonSubTypes.Type(value = RoomEventDTO.Resumed.class, name = "Resumed"),
+        @JsonSubTypes.Type(value = RoomEventDTO.Chat.class, name = "Chat"),
+        @JsonSubTypes.Type(value = RoomEventDTO.RosterDelta.class, name = "RosterDelta"),
+        @JsonSubTypes.Type(value = RoomEventDTO.GameStatus.class, name = "GameStatus")
+})
+public abstract class RoomEventDTO {
+    private String roomId;
+
+    /**
+     * État de la room : participants, messages récents, partie.
+     * Envoyé à l'arrivée, il porte aussi le jeton de reprise du nouveau venu.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Snapshot extends RoomEventDTO {
+        private RoomDTO room;
+        private String resumeToken;
+
+        public Snapshot(RoomDTO room) {
+            this.room = room;
+        }
+    }
+
+    /**
+     * Rattrapage après une reprise de session : la place, la liste des participants, les messages
+     * postérieurs au dernier reçu et la progression de la partie, sans les questions.
+     * Si game.seq diffère du dernier numéro reçu, le client demande un snapshot de partie.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resumed extends RoomEventDTO {
+        private String username;
+        private Long participantId;
+        private String resumeToken;
+        private List<ParticipantDTO> participants;
+        private List<MessageDTO> messages;
+        private boolean activeGame;
+        private GameProgressDTO game;
+    }
+
+    /** Un message de chat (ou message SYSTEM) enregistré. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chat extends RoomEventDTO {
+        private Long id;
+        private String sender;
+        private String content;
+        private Instant createdAt;
+    }
+
+    /** Arrivées et départs groupés : seuls les participants concernés sont envoyés. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RosterDelta extends RoomEventDTO {
+        private List<ParticipantDTO> joined;
+        private List<ParticipantDTO> left;
+    }
+
+    /** Une partie démarre ou se termine dans la room. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GameStatus extends RoomEventDTO {
+        private String gameId;
+        private boolean activeGame;
+    }
+}
@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "participants")
+@Table(name = "participants", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_participants_room_username", columnNames = {"room_id", "username"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,10 +26,19 @@ public class Participant {
     @Column(name = "delai_reponse")
     private int delaiReponse;
 
+    // room (clé métier) à laquelle appartient ce pseudo ; null pour les participants d'avant
+    @Column(name = "room_id")
+    private String roomId;
+
     // Constructeur avec génération automatique de participantId
     public Participant(String username, int delaiReponse) {
         this.username = username;
         this.delaiReponse = delaiReponse;
     }
+
+    public Participant(String roomId, String username, int delaiReponse) {
+        this(username, delaiReponse);
+        this.roomId = roomId;
+    }
 }
 
@@ -1,5 +1,6 @@
 package com.main.triviatreckapp.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,7 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_category_difficulty", columnList = "categoryId, difficulty")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -36,5 +39,17 @@ public class Question {
     @Column(name = "incorrect_answer")
     private List<String> incorrectAnswers = new ArrayList<>();
 
+    // sha256(categoryId, question) : identifie la question d'un import à l'autre
+    @JsonIgnore
+    @Column(name = "content_key", length = 64, unique = true)
+    private String contentKey;
 
+    // sha256 de tout le contenu : une question dont le hash n'a pas changé n'est pas réécrite
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // fichier d'origine (ex : Questions.json, histoire-2025.json)
+    @JsonIgnore
+    private String pack;
 }
@@ -38,6 +38,10 @@ public class QuizGame {
     @OrderColumn(name = "question_order")        // <-- ajouté pour indexer la liste
     private List<Question> questions = new ArrayList<>();
 
+    // questions telles que tirées au lancement (JSON) : une partie reprise ne voit pas les packs modifiés depuis
+    @Column(name = "question_set", columnDefinition = "TEXT")
+    private String questionSet;
+
     // score par joueur (clé = nom ou id utilisateur)
     @ElementCollection
     @CollectionTable(name = "quiz_game_scores", joinColumns = @JoinColumn(name = "quiz_game_id"))
@@ -22,13 +22,15 @@ public class Room {
     private String roomId;
 
     // → Passage de List<String> à List<Participant>
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // lectures seules : RoomRepository.findRoster
+    @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinTable(name = "room_participants",
             joinColumns = @JoinColumn(name = "room_id"),
             inverseJoinColumns = @JoinColumn(name = "participant_id"))
     private List<Participant> participants = new ArrayList<>();
 
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "room",
+    // historique complet, jamais chargé pour une diffusion : voir ChatHistory
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "room",
             cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Message> messages = new ArrayList<>();
 
@@ -0,0 +1,48 @@
+package com.main.triviatreckapp.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Place d'un joueur dans une room et jeton de reprise en cours, partagée par tous les nœuds
+ * (voir {@link com.main.triviatreckapp.service.SessionRegistry}).
+ */
+@Entity
+@Table(name = "room_seats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_room_seats_room_username", columnNames = {"room_id", "username"})
+}, indexes = {
+        @Index(name = "idx_room_seats_leave_at", columnList = "leave_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RoomSeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private String roomId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "participant_id")
+    private Long participantId;
+
+    // session STOMP qui tient la place, sur n'importe quel nœud
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "token_id", nullable = false)
+    private String tokenId;
+
+    // fin du délai de grâce d'une session coupée ; null tant que la place est tenue
+    @Column(name = "leave_at")
+    private Instant leaveAt;
+}
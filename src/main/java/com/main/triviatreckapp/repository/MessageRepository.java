@@ -1,12 +1,28 @@
 package com.main.triviatreckapp.repository;
 
+import com.main.triviatreckapp.dto.MessageDTO;
 import com.main.triviatreckapp.entities.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
+    /**
+     * Page de l'historique d'une room, du plus récent au plus ancien, avant l'id {@code before}.
+     * Pagination par clé : s'appuie sur l'index (room_id, id), sans OFFSET.
+     */
+    @Query("""
+            select new com.main.triviatreckapp.dto.MessageDTO(m.id, r.roomId, m.sender, m.content, m.createdAt)
+            from Message m join m.room r
+            where r.roomId = :roomId and m.id < :before
+            order by m.id desc
+            """)
+    List<MessageDTO> findPageBefore(@Param("roomId") String roomId, @Param("before") long before, Limit limit);
 
-
-}
\ No newline at end of file
+}
@@ -3,9 +3,10 @@ package com.main.triviatreckapp.repository;
 import com.main.triviatreckapp.entities.Participant;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 public interface ParticipantRepository
         extends JpaRepository<Participant, Long> {
-    Optional<Participant> findByUsername(String username);
+    List<Participant> findByRoomIdAndUsernameIn(String roomId, Collection<String> usernames);
 }
@@ -2,11 +2,21 @@ package com.main.triviatreckapp.repository;
 
 import com.main.triviatreckapp.entities.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
+    /**
+     * Charge toutes les questions et leurs réponses incorrectes en une requête,
+     * pour construire le catalogue en mémoire.
+     * Les doublons écartés à l'import (sans clé de contenu) n'en font pas partie.
+     */
+    @Query("select distinct q from Question q left join fetch q.incorrectAnswers where q.contentKey is not null")
+    List<Question> findAllWithIncorrectAnswers();
 
 }
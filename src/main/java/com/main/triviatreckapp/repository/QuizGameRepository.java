@@ -3,10 +3,12 @@ package com.main.triviatreckapp.repository;
 import com.main.triviatreckapp.entities.QuizGame;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -35,6 +37,24 @@ public interface QuizGameRepository extends JpaRepository<QuizGame, Long> {
     Optional<QuizGame> findWithAllByGameId(@Param("gameId") String gameId);
 
 
+    /**
+     * Identifiants des parties non terminées, pour la reprise après redémarrage.
+     */
+    @Query("select g.gameId from QuizGame g where g.finished = false")
+    List<String> findActiveGameIds();
+
+    /**
+     * Met à jour la progression sans charger la partie ni toucher à ses scores.
+     */
+    @Modifying
+    @Query("""
+        UPDATE QuizGame g
+        SET g.currentQuestionIndex = :index, g.finished = :finished, g.waitingForNext = :waitingForNext
+        WHERE g.gameId = :gameId
+        """)
+    int updateProgress(@Param("gameId") String gameId, @Param("index") int currentQuestionIndex,
+                       @Param("finished") boolean finished, @Param("waitingForNext") boolean waitingForNext);
+
     void deleteByGameId(String gameId);
 }
 
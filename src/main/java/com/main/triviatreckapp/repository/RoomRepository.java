@@ -1,12 +1,16 @@
 package com.main.triviatreckapp.repository;
 
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.RoomDTO;
 import com.main.triviatreckapp.entities.Room;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +18,18 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     Optional<Room> findByRoomId(String roomId);
     boolean existsByRoomId(String roomId);
 
+    boolean existsByRoomIdAndParticipantsUsername(String roomId, String username);
+
+    /** Participants de la room, (id, pseudo) seulement : ni room ni partie chargées */
+    @Query("select new com.main.triviatreckapp.dto.ParticipantDTO(p.id, p.username) "
+            + "from Room r join r.participants p where r.roomId = :roomId")
+    List<ParticipantDTO> findRoster(@Param("roomId") String roomId);
+
+    /** En-tête de la room pour un RoomDTO, en une requête */
+    @Query("select new com.main.triviatreckapp.dto.RoomDTO(r.roomId, g.gameId, r.activeGame) "
+            + "from Room r left join r.quizGame g where r.roomId = :roomId")
+    Optional<RoomDTO> findHeader(@Param("roomId") String roomId);
+
     void deleteByRoomId(String roomId);
 
     /** Lecture avec verrou pessimiste  */
@@ -0,0 +1,72 @@
+package com.main.triviatreckapp.repository;
+
+import com.main.triviatreckapp.entities.RoomSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Les changements d'une place sont des mises à jour conditionnelles : deux nœuds qui reprennent,
+ * coupent ou libèrent la même place en même temps ne peuvent pas réussir tous les deux.
+ */
+@Repository
+public interface RoomSeatRepository extends JpaRepository<RoomSeat, Long> {
+
+    Optional<RoomSeat> findByRoomIdAndUsername(String roomId, String username);
+
+    boolean existsByRoomIdAndUsername(String roomId, String username);
+
+    long countByLeaveAtIsNotNull();
+
+    /** Passe la place à une nouvelle session, si le jeton présenté est toujours le sien. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE RoomSeat s
+        SET s.sessionId = :sessionId, s.tokenId = :nextTokenId, s.leaveAt = null
+        WHERE s.roomId = :roomId AND s.username = :username AND s.tokenId = :tokenId
+        """)
+    int resume(@Param("roomId") String roomId, @Param("username") String username,
+               @Param("tokenId") String tokenId, @Param("sessionId") String sessionId,
+               @Param("nextTokenId") String nextTokenId);
+
+    /** Programme le départ, si la place est encore tenue par la session coupée. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE RoomSeat s
+        SET s.leaveAt = :leaveAt
+        WHERE s.roomId = :roomId AND s.username = :username
+          AND (s.sessionId = :sessionId OR s.sessionId IS NULL)
+        """)
+    int scheduleLeave(@Param("roomId") String roomId, @Param("username") String username,
+                      @Param("sessionId") String sessionId, @Param("leaveAt") Instant leaveAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE RoomSeat s
+        SET s.leaveAt = null
+        WHERE s.roomId = :roomId AND s.username = :username AND s.leaveAt IS NOT NULL
+        """)
+    int cancelLeave(@Param("roomId") String roomId, @Param("username") String username);
+
+    @Query("select s from RoomSeat s where s.leaveAt <= :now")
+    List<RoomSeat> findExpired(@Param("now") Instant now);
+
+    /** Ferme la place si son départ est toujours dû : un seul nœud l'applique. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        DELETE FROM RoomSeat s
+        WHERE s.roomId = :roomId AND s.username = :username AND s.leaveAt <= :now
+        """)
+    int deleteExpired(@Param("roomId") String roomId, @Param("username") String username,
+                      @Param("now") Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RoomSeat s WHERE s.roomId = :roomId AND s.username = :username")
+    int deleteSeat(@Param("roomId") String roomId, @Param("username") String username);
+}
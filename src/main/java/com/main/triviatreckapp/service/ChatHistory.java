@@ -0,0 +1,119 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historique du chat des rooms.
+ * Les N derniers messages de chaque room sont gardés en mémoire dans un tampon circulaire :
+ * c'est cette fenêtre qui part dans {@link com.main.triviatreckapp.dto.RoomDTO}.
+ * L'historique plus ancien se lit par pages via {@link #page}.
+ */
+@Service
+public class ChatHistory {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final MessageRepository messageRepository;
+    private final Map<String, Ring> recent = new ConcurrentHashMap<>();
+
+    @Value("${quiz.chat.recent-size:50}")
+    private int recentSize;
+
+    public ChatHistory(MessageRepository messageRepository) {
+        this.messageRepository = messageRepository;
+    }
+
+    /**
+     * Derniers messages de la room, du plus ancien au plus récent.
+     * Au premier accès, la fenêtre est chargée depuis la base.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDTO> recent(String roomId) {
+        Ring ring = recent.get(roomId);
+        if (ring == null) {
+            Ring loaded = new Ring(recentSize);
+            loaded.addAll(page(roomId, null, recentSize));
+            ring = Objects.requireNonNullElse(recent.putIfAbsent(roomId, loaded), loaded);
+        }
+        return ring.snapshot();
+    }
+
+    /**
+     * Ajoute un message qui vient d'être diffusé.
+     * Sa ligne peut ne pas être encore écrite (voir {@link ChatWriter}) : la fenêtre est donc
+     * chargée d'abord si besoin, puis le message y est ajouté, jamais relu depuis la base.
+     */
+    public void append(MessageDTO message) {
+        Ring ring = recent.get(message.getRoomId());
+        if (ring == null) {
+            recent(message.getRoomId());
+            ring = recent.get(message.getRoomId());
+        }
+        ring.add(message);
+    }
+
+    /**
+     * Page d'historique, du plus ancien au plus récent.
+     * @param before id du plus ancien message déjà affiché, null pour la page la plus récente
+     * @param limit taille de la page, plafonnée à 200
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDTO> page(String roomId, Long before, int limit) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<MessageDTO> page = new ArrayList<>(messageRepository.findPageBefore(
+                roomId, before != null ? before : Long.MAX_VALUE, Limit.of(size)));
+        Collections.reverse(page);
+        return page;
+    }
+
+    public void evict(String roomId) {
+        recent.remove(roomId);
+    }
+
+    /**
+     * Tampon circulaire trié par id : un message déjà présent (chargement concurrent d'un ajout)
+     * n'est pas dupliqué.
+     */
+    private static final class Ring {
+        private final int capacity;
+        private final ArrayDeque<MessageDTO> messages;
+
+        Ring(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            this.messages = new ArrayDeque<>(this.capacity);
+        }
+
+        synchronized void addAll(List<MessageDTO> page) {
+            page.forEach(this::add);
+        }
+
+        synchronized void add(MessageDTO message) {
+            MessageDTO last = messages.peekLast();
+            if (last == null || last.getId() < message.getId()) {
+                messages.addLast(message);
+            } else if (messages.stream().noneMatch(m -> m.getId().equals(message.getId()))) {
+                // arrivé en retard : on le replace à son rang
+                List<MessageDTO> sorted = new ArrayList<>(messages);
+                sorted.add(message);
+                sorted.sort(Comparator.comparing(MessageDTO::getId));
+                messages.clear();
+                messages.addAll(sorted);
+            }
+            while (messages.size() > capacity) {
+                messages.pollFirst();
+            }
+        }
+
+        synchronized List<MessageDTO> snapshot() {
+            return List.copyOf(messages);
+        }
+    }
+}
@@ -1,33 +1,56 @@
 package com.main.triviatreckapp.service;
 
-import com.main.triviatreckapp.entities.Message;
-import com.main.triviatreckapp.entities.Room;
-import com.main.triviatreckapp.repository.MessageRepository;
-import com.main.triviatreckapp.repository.RoomRepository;
+import com.main.triviatreckapp.dto.MessageDTO;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
+/**
+ * Chemin d'un message de chat : id et horodatage attribués en mémoire, évènement
+ * {@link com.main.triviatreckapp.dto.RoomEventDTO.Chat} diffusé tout de suite,
+ * ligne écrite plus tard par lot via {@link ChatWriter}. Ni la room ni le message ne passent par JPA.
+ */
 @Service
 public class ChatService {
-    private final MessageRepository msgRepo;
-    private final RoomRepository roomRepo;
+    private final MessageIdGenerator idGenerator;
+    private final ChatWriter chatWriter;
+    private final ChatHistory chatHistory;
+    private final RoomEventPublisher roomEvents;
 
-    public ChatService(MessageRepository msgRepo, RoomRepository roomRepo) { this.msgRepo = msgRepo;
-        this.roomRepo = roomRepo;
+    public ChatService(MessageIdGenerator idGenerator, ChatWriter chatWriter, ChatHistory chatHistory,
+                       RoomEventPublisher roomEvents) { this.idGenerator = idGenerator;
+        this.chatWriter = chatWriter;
+        this.chatHistory = chatHistory;
+        this.roomEvents = roomEvents;
     }
 
-    @Transactional
-    public Message saveMessage(String roomId, String sender, String content) {
-        Room room = roomRepo.findByRoomId(roomId).orElseThrow(() -> new IllegalArgumentException("Room not found: " + roomId));
+    /**
+     * Enregistre et diffuse un message.
+     * Appelé dans une transaction (ex : message SYSTEM d'une room qui vient d'être créée),
+     * le message ne part qu'après le commit : sinon l'écriture pourrait précéder la room.
+     * @throws IllegalStateException si la file d'écriture est saturée (hors transaction)
+     */
+    public MessageDTO saveMessage(String roomId, String sender, String content) {
+        MessageDTO dto = new MessageDTO(idGenerator.nextId(), roomId, sender, content, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(dto);
+                }
+            });
+        } else {
+            publish(dto);
+        }
+        return dto;
+    }
 
-        Message msg = new Message();
-        msg.setRoom(room);
-        msg.setSender(sender);
-        msg.setContent(content);
-        msg.setTimestamp(LocalDateTime.now());
-        return msgRepo.save(msg);
+    private void publish(MessageDTO dto) {
+        chatWriter.enqueue(dto);
+        chatHistory.append(dto);
+        roomEvents.chat(dto);
     }
 
 }
@@ -0,0 +1,206 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture groupée des messages de chat.
+ * <p>
+ * Le message est diffusé dès qu'il a son id ; sa ligne part dans une file bornée.
+ * Un thread d'écriture vide la file toutes les quiz.chat.writer.flush-interval-ms,
+ * ou dès que quiz.chat.writer.batch-size messages attendent, en un seul INSERT multi-lignes.
+ * File pleine : l'appelant attend au plus quiz.chat.writer.offer-timeout-ms puis le message est refusé,
+ * la base n'est jamais submergée.
+ */
+@Slf4j
+@Service
+public class ChatWriter {
+
+    // la jointure sur rooms résout la clé de la room et ignore les rooms supprimées entre-temps
+    private static final String INSERT_PREFIX = """
+            INSERT INTO messages (id, room_id, sender, content, created_at, timestamp)
+            SELECT v.id, r.id, v.sender, v.content, v.created_at, v.ts
+            FROM (VALUES\s""";
+    private static final String INSERT_ROW = "(?::bigint, ?, ?, ?, ?::timestamptz, ?::timestamp)";
+    private static final String INSERT_SUFFIX = """
+            ) AS v(id, room_key, sender, content, created_at, ts)
+            JOIN rooms r ON r.room_id = v.room_key
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<MessageDTO> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final Timer flushLatency;
+    private final DistributionSummary rowsPerFlush;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public ChatWriter(JdbcTemplate jdbcTemplate,
+                      @Value("${quiz.chat.writer.capacity:10000}") int capacity,
+                      @Value("${quiz.chat.writer.batch-size:256}") int batchSize,
+                      @Value("${quiz.chat.writer.flush-interval-ms:10}") long flushIntervalMs,
+                      @Value("${quiz.chat.writer.offer-timeout-ms:50}") long offerTimeoutMs,
+                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        meterRegistry.gaugeCollectionSize("quiz.chat.writer.depth", List.of(), queue);
+        this.flushLatency = Timer.builder("quiz.chat.flush.latency")
+                .description("Durée d'écriture d'un lot de messages")
+                .register(meterRegistry);
+        this.rowsPerFlush = DistributionSummary.builder("quiz.chat.flush.rows")
+                .description("Messages écrits par lot")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("quiz.chat.writer.rejected")
+                .description("Messages refusés, file d'écriture pleine")
+                .register(meterRegistry);
+        this.failed = Counter.builder("quiz.chat.writer.failed")
+                .description("Messages dont l'écriture a échoué")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("chat-writer").start(this::run);
+    }
+
+    /**
+     * Arrête le thread d'écriture et écrit ce qui reste en file.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            // pas d'interruption : une écriture en cours irait au bout, la boucle sort au plus tard après un intervalle
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Met un message en file d'écriture.
+     * @throws IllegalStateException si la file est restée pleine pendant tout le délai d'attente
+     */
+    public void enqueue(MessageDTO message) {
+        boolean accepted;
+        try {
+            accepted = queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new IllegalStateException("Chat saturé, message refusé pour la room " + message.getRoomId());
+        }
+    }
+
+    /**
+     * Écrit tout ce qui est en file, lot par lot, sur le thread appelant.
+     */
+    public void flush() {
+        List<MessageDTO> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void run() {
+        List<MessageDTO> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                MessageDTO first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // le premier message ouvre la fenêtre : on groupe jusqu'au lot plein ou à l'échéance
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    MessageDTO next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // le lot en cours est écrit, stop() écrit le reste
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<MessageDTO> batch) {
+        try {
+            flushLatency.record(() -> insert(batch));
+            rowsPerFlush.record(batch.size());
+        } catch (Exception e) {
+            // une ligne fautive (contenu trop long, room supprimée pendant l'écriture) ne doit pas perdre le lot
+            log.warn("Échec de l'écriture groupée de {} message(s), reprise ligne par ligne", batch.size(), e);
+            for (MessageDTO message : batch) {
+                try {
+                    insert(List.of(message));
+                } catch (Exception rowError) {
+                    failed.increment();
+                    log.error("Message {} de la room {} non écrit", message.getId(), message.getRoomId(), rowError);
+                }
+            }
+        }
+    }
+
+    private void insert(List<MessageDTO> rows) {
+        StringJoiner values = new StringJoiner(", ", INSERT_PREFIX, INSERT_SUFFIX);
+        Collections.nCopies(rows.size(), INSERT_ROW).forEach(values::add);
+        Object[] args = new Object[rows.size() * 6];
+        int i = 0;
+        for (MessageDTO row : rows) {
+            args[i++] = row.getId();
+            args[i++] = row.getRoomId();
+            args[i++] = row.getSender();
+            args[i++] = row.getContent();
+            args[i++] = row.getCreatedAt().atOffset(ZoneOffset.UTC);
+            args[i++] = LocalDateTime.ofInstant(row.getCreatedAt(), ZoneId.systemDefault());
+        }
+        jdbcTemplate.update(values.toString(), args);
+    }
+}
@@ -0,0 +1,31 @@
+package com.main.triviatreckapp.service;
+
+import java.util.List;
+
+/**
+ * Liste des nœuds de l'application, vue depuis ce nœud.
+ * Sert à {@link GameOwnership} pour attribuer chaque partie à un nœud.
+ * <p>
+ * L'implémentation par défaut est {@link StaticClusterMembership} ; une autre (DNS, Kubernetes, registre…)
+ * se branche en déclarant son bean avec {@code quiz.cluster.membership} différent de {@code static}.
+ */
+public interface ClusterMembership {
+
+    String localNodeId();
+
+    /**
+     * Nœuds en service, nœud local compris.
+     */
+    List<Node> members();
+
+    /**
+     * {@code listener} est appelé après chaque changement de {@link #members()}.
+     */
+    void addListener(Runnable listener);
+
+    /**
+     * @param url adresse HTTP du nœud, utilisée pour lui transmettre les commandes de ses parties
+     */
+    record Node(String id, String url) {
+    }
+}
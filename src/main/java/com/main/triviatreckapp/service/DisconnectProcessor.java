@@ -0,0 +1,102 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Départs sur déconnexion.
+ * <p>
+ * Une session coupée ne quitte pas tout de suite sa room : sa place (pseudo, score) est gardée
+ * quiz.rooms.disconnect-grace-ms. Si le client revient dans ce délai avec son jeton de reprise
+ * ({@link SessionRegistry}), sur ce nœud ou un autre, il la retrouve. Sinon le départ est appliqué par
+ * {@link #expireLeaves}, passé toutes les quiz.rooms.leave.sweep-interval-ms sur chaque nœud : les départs
+ * dus d'une même room sont groupés dans un seul {@link RoomService#removeParticipantsFromRoom}.
+ * Une coupure réseau de 300 sessions donne ainsi une transaction et un évènement par room.
+ * <p>
+ * Le départ programmé est écrit avec la place : un nœud arrêté ou redémarré ne le perd pas,
+ * et une reprise faite ailleurs l'annule.
+ */
+@Slf4j
+@Service
+public class DisconnectProcessor {
+
+    private final RoomService roomService;
+    private final SessionRegistry sessions;
+    private final Duration grace;
+    private final Counter disconnects;
+    private final Counter reconnected;
+    private final DistributionSummary batchSizes;
+
+    public DisconnectProcessor(RoomService roomService, SessionRegistry sessions,
+                               @Value("${quiz.rooms.disconnect-grace-ms:10000}") long graceMs,
+                               MeterRegistry meterRegistry) {
+        this.roomService = roomService;
+        this.sessions = sessions;
+        this.grace = Duration.ofMillis(graceMs);
+        this.disconnects = Counter.builder("quiz.rooms.disconnects")
+                .description("Sessions déconnectées alors qu'elles étaient dans une room")
+                .register(meterRegistry);
+        this.reconnected = Counter.builder("quiz.rooms.disconnects.reconnected")
+                .description("Places retrouvées pendant le délai de grâce")
+                .register(meterRegistry);
+        meterRegistry.gauge("quiz.rooms.disconnects.pending", sessions, SessionRegistry::pendingLeaves);
+        this.batchSizes = DistributionSummary.builder("quiz.rooms.leave.batch.size")
+                .description("Départs appliqués par transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Session coupée : le départ est programmé après le délai de grâce.
+     * Rien n'est fait si la place a déjà été reprise par une autre session (rafraîchissement de page :
+     * la nouvelle session arrive souvent avant la déconnexion de l'ancienne).
+     */
+    public void onDisconnect(String roomId, String username, String sessionId) {
+        if (sessions.scheduleLeave(roomId, username, sessionId, Instant.now().plus(grace))) {
+            disconnects.increment();
+        }
+    }
+
+    /**
+     * Le client revient : un départ en attente pour cette place est annulé.
+     * @return true si la place est toujours à lui, false si elle a été libérée
+     */
+    public boolean reclaim(String roomId, String username) {
+        if (sessions.cancelLeave(roomId, username)) {
+            reconnected.increment();
+            return true;
+        }
+        // aucune coupure en cours, ou délai écoulé : la place n'est plus ouverte
+        return sessions.isOpen(roomId, username);
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.rooms.leave.sweep-interval-ms:1000}")
+    public void expireLeaves() {
+        Map<String, Set<String>> expired;
+        try {
+            expired = sessions.expireLeaves(Instant.now());
+        } catch (Exception e) {
+            log.error("Lecture des départs programmés impossible, nouvel essai au prochain passage", e);
+            return;
+        }
+        expired.forEach(this::leave);
+    }
+
+    private void leave(String roomId, Set<String> usernames) {
+        batchSizes.record(usernames.size());
+        try {
+            roomService.removeParticipantsFromRoom(roomId, usernames);
+        } catch (Exception e) {
+            log.error("Échec du départ de {} participant(s) de la room {}", usernames.size(), roomId, e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.Request.PlayerJokerRequest;
+import com.main.triviatreckapp.Request.StartGameRequest;
+import com.main.triviatreckapp.config.ClusterSecretFilter;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.GameProgressDTO;
+import com.main.triviatreckapp.dto.PlayerAnswerDTO;
+import com.main.triviatreckapp.dto.QuizGameDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Point d'entrée des commandes et lectures d'une partie, quel que soit le nœud qui les reçoit.
+ * Si la partie appartient à ce nœud ({@link GameOwnership}), {@link QuizGameService} la traite ;
+ * sinon la commande est transmise au propriétaire, sur /internal/games/{gameId}
+ * ({@link com.main.triviatreckapp.controller.ClusterController}).
+ * <p>
+ * À chaque changement de membres, les parties en mémoire qui changent de propriétaire sont écrites,
+ * retirées et annoncées au nouveau propriétaire ; celles d'un nœud parti sont reprises depuis la base.
+ */
+@Slf4j
+@Service
+public class GameCommandRouter {
+
+    private final QuizGameService games;
+    private final GameOwnership ownership;
+    private final RestClient client;
+    private final MeterRegistry meterRegistry;
+    private final Counter released;
+    private final Counter recovered;
+
+    public GameCommandRouter(QuizGameService games, GameOwnership ownership, RestClient.Builder restClients,
+                             @Value("${quiz.cluster.forward-timeout-ms:2000}") long forwardTimeoutMs,
+                             @Value("${quiz.cluster.secret:}") String clusterSecret,
+                             MeterRegistry meterRegistry) {
+        this.games = games;
+        this.ownership = ownership;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(forwardTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(forwardTimeoutMs));
+        // envoyé sur chaque appel, y compris les passations
+        this.client = restClients.requestFactory(requestFactory)
+                .defaultHeader(ClusterSecretFilter.HEADER, clusterSecret)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.released = Counter.builder("quiz.cluster.handoffs")
+                .description("Parties passées d'un nœud à l'autre")
+                .tag("direction", "released")
+                .register(meterRegistry);
+        this.recovered = Counter.builder("quiz.cluster.handoffs")
+                .description("Parties passées d'un nœud à l'autre")
+                .tag("direction", "recovered")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void listen() {
+        ownership.addListener(this::rebalance);
+    }
+
+    public boolean isLocal(String gameId) {
+        return ownership.isLocal(gameId);
+    }
+
+    public void start(String gameId, StartGameRequest request) {
+        if (isLocal(gameId)) {
+            games.startQuizGameDTO(gameId, request);
+        } else {
+            forward(gameId, "start", request);
+        }
+    }
+
+    public void join(String gameId, Long participantId) {
+        if (isLocal(gameId)) {
+            games.enterQuizGame(gameId, participantId);
+        } else {
+            forward(gameId, "join", participantId);
+        }
+    }
+
+    public void leave(String gameId, Long participantId) {
+        if (isLocal(gameId)) {
+            games.removeParticipantFromGame(gameId, participantId);
+        } else {
+            forward(gameId, "leave", participantId);
+        }
+    }
+
+    public void answer(String gameId, PlayerAnswerDTO answer) {
+        if (isLocal(gameId)) {
+            games.processAnswerDTO(gameId, answer);
+        } else {
+            forward(gameId, "answer", answer);
+        }
+    }
+
+    public void joker(String gameId, PlayerJokerRequest joker) {
+        if (isLocal(gameId)) {
+            games.processJoker(gameId, joker);
+        } else {
+            forward(gameId, "joker", joker);
+        }
+    }
+
+    public Optional<GameEventDTO.Snapshot> snapshot(String gameId) {
+        return isLocal(gameId)
+                ? games.getSnapshot(gameId)
+                : fetch(gameId, GameEventDTO.Snapshot.class, "/snapshot");
+    }
+
+    public Optional<GameProgressDTO> progress(String gameId, String username) {
+        return isLocal(gameId)
+                ? games.getProgress(gameId, username)
+                : fetch(gameId, GameProgressDTO.class, "/progress?username={username}", username);
+    }
+
+    public QuizGameDTO quizGame(String gameId) {
+        return isLocal(gameId)
+                ? games.getQuizGameDTO(gameId)
+                : fetch(gameId, QuizGameDTO.class, "")
+                        .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOwnedGames() {
+        games.recoverGames(this::isLocal);
+    }
+
+    /**
+     * Nouvel anneau : rend les parties perdues à leur nouveau propriétaire, reprend celles des nœuds partis.
+     */
+    void rebalance() {
+        Map<String, Long> handedOff = games.releaseGames(gameId -> !isLocal(gameId));
+        handedOff.forEach((gameId, seq) -> {
+            released.increment();
+            try {
+                client.post()
+                        .uri(ownerUrl(gameId) + "/internal/games/{gameId}/handoff?seq={seq}", gameId, seq)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (Exception e) {
+                // le nouveau propriétaire chargera la partie depuis la base à la première commande
+                log.warn("Passation de la partie {} non annoncée : {}", gameId, e.getMessage());
+            }
+        });
+        recovered.increment(games.recoverGames(this::isLocal));
+    }
+
+    private void forward(String gameId, String command, Object body) {
+        meterRegistry.counter("quiz.cluster.forwarded", "command", command).increment();
+        client.post()
+                .uri(ownerUrl(gameId) + "/internal/games/{gameId}/{command}", gameId, command)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private <T> Optional<T> fetch(String gameId, Class<T> type, String path, Object... variables) {
+        meterRegistry.counter("quiz.cluster.forwarded", "command", "read").increment();
+        Object[] uriVariables = new Object[variables.length + 1];
+        uriVariables[0] = gameId;
+        System.arraycopy(variables, 0, uriVariables, 1, variables.length);
+        return Optional.ofNullable(client.get()
+                .uri(ownerUrl(gameId) + "/internal/games/{gameId}" + path, uriVariables)
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), (request, response) -> { })
+                .body(type));
+    }
+
+    private String ownerUrl(String gameId) {
+        return ownership.owner(gameId).url();
+    }
+}
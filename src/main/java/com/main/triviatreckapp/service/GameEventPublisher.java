@@ -0,0 +1,43 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.GameEventDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publie les évènements d'une partie sur /game/{gameId}.
+ * Les méthodes {@code publish} et {@code snapshot} sont appelées depuis la boîte aux lettres de la partie,
+ * ce qui garantit que les numéros de séquence suivent l'ordre des mutations.
+ * Chaque évènement périme le snapshot de la partie en cache ({@link SnapshotCache}).
+ */
+@Component
+public class GameEventPublisher {
+
+    private final StompBroadcaster broadcaster;
+    private final SnapshotCache snapshots;
+
+    public GameEventPublisher(StompBroadcaster broadcaster, SnapshotCache snapshots) {
+        this.broadcaster = broadcaster;
+        this.snapshots = snapshots;
+    }
+
+    public void publish(GameState state, GameEventDTO event) {
+        event.setGameId(state.getGameId());
+        event.setSeq(state.nextSeq());
+        snapshots.invalidate(SnapshotCache.Kind.GAME, state.getGameId());
+        broadcaster.broadcast("/game/" + state.getGameId(), event);
+    }
+
+    /**
+     * Diffuse l'état complet à tous les abonnés, au démarrage de la partie.
+     */
+    public void broadcastSnapshot(GameEventDTO.Snapshot snapshot) {
+        broadcaster.broadcast("/game/" + snapshot.getGameId(), snapshot);
+    }
+
+    public GameEventDTO.Snapshot snapshot(GameState state) {
+        GameEventDTO.Snapshot snapshot = new GameEventDTO.Snapshot(state.toDTO());
+        snapshot.setGameId(state.getGameId());
+        snapshot.setSeq(state.getSeq());
+        return snapshot;
+    }
+}
@@ -0,0 +1,80 @@
+package com.main.triviatreckapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Boîte aux lettres d'une partie : plusieurs producteurs, un seul consommateur.
+ * Les commandes sont exécutées une par une, dans l'ordre de dépôt, par un thread virtuel
+ * démarré quand la boîte passe de vide à non vide. Il n'y a jamais deux consommateurs
+ * à la fois, l'état de la partie n'a donc pas besoin de verrou.
+ */
+@Slf4j
+public final class GameMailbox {
+
+    private static final ExecutorService DRAINERS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-mailbox-", 0).factory());
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile Thread drainer;
+
+    /**
+     * Dépose une commande ; ne bloque jamais.
+     */
+    public void post(Runnable command) {
+        commands.add(command);
+        if (draining.compareAndSet(false, true)) {
+            DRAINERS.execute(this::drain);
+        }
+    }
+
+    /**
+     * Dépose une commande qui rend un résultat.
+     * Appelée depuis le thread de la boîte, elle s'exécute tout de suite,
+     * sinon attendre le résultat depuis une commande bloquerait la boîte.
+     */
+    public <T> CompletableFuture<T> call(Supplier<T> command) {
+        if (Thread.currentThread() == drainer) {
+            return CompletableFuture.completedFuture(command.get());
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        post(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private void drain() {
+        while (true) {
+            drainer = Thread.currentThread();
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (Throwable e) {
+                    // une Error laissée filer tuerait le consommateur avec draining à true : plus rien ne serait traité
+                    log.error("Échec d'une commande de partie", e);
+                }
+            }
+            // relâché avant draining : le consommateur suivant pose sa propre valeur
+            drainer = null;
+            draining.set(false);
+            // une commande a pu arriver entre le dernier poll et le relâchement
+            if (commands.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Propriétaire de chaque partie : un seul nœud tient l'état en mémoire d'une partie
+ * ({@link GameStateEngine}), ses minuteries et le traitement de ses réponses.
+ * Les nœuds sont placés sur un {@link HashRing} reconstruit à chaque changement de {@link ClusterMembership}.
+ */
+@Service
+public class GameOwnership {
+
+    private final ClusterMembership membership;
+    private final int virtualNodes;
+    private final MeterRegistry meterRegistry;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile View view;
+
+    public GameOwnership(ClusterMembership membership,
+                         @Value("${quiz.cluster.virtual-nodes:128}") int virtualNodes,
+                         MeterRegistry meterRegistry) {
+        this.membership = membership;
+        this.virtualNodes = virtualNodes;
+        this.meterRegistry = meterRegistry;
+        this.view = buildView();
+    }
+
+    // hors du constructeur : la jauge et le listener ne voient qu'un objet complet
+    @PostConstruct
+    void register() {
+        meterRegistry.gauge("quiz.cluster.members", this, o -> o.view.nodes().size());
+        membership.addListener(() -> {
+            view = buildView();
+            listeners.forEach(Runnable::run);
+        });
+    }
+
+    public boolean isLocal(String gameId) {
+        View current = view;
+        // seul dans le cluster : pas de hachage
+        return current.nodes().size() == 1 || membership.localNodeId().equals(current.ring().ownerOf(gameId));
+    }
+
+    public ClusterMembership.Node owner(String gameId) {
+        View current = view;
+        return current.nodes().get(current.ring().ownerOf(gameId));
+    }
+
+    /**
+     * {@code listener} est appelé après chaque changement de propriétaire possible,
+     * une fois le nouvel anneau en place.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private View buildView() {
+        Map<String, ClusterMembership.Node> nodes = membership.members().stream()
+                .collect(Collectors.toUnmodifiableMap(ClusterMembership.Node::id, Function.identity()));
+        return new View(nodes, new HashRing(nodes.keySet(), virtualNodes));
+    }
+
+    private record View(Map<String, ClusterMembership.Node> nodes, HashRing ring) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.dto.QuizGameDTO;
+import com.main.triviatreckapp.dto.ScoreDTO;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * État en mémoire d'une partie en cours : question courante, ordre des bonnes réponses,
+ * joueurs ayant déjà répondu et scores.
+ * Toutes les lectures/écritures passent par la boîte aux lettres de la partie
+ * ({@link #post}, {@link #call}) : un seul thread à la fois touche à l'état.
+ */
+public class GameState {
+
+    private final String gameId;
+    private final Long gameDbId;
+    private final String roomId;
+
+    // questions figées au lancement de la partie (options déjà mélangées)
+    private final List<QuestionDTO> questions;
+
+    // participantId -> username, dans l'ordre d'arrivée
+    private final Map<Long, String> participants = new LinkedHashMap<>();
+    private final Map<String, Integer> scores = new LinkedHashMap<>();
+
+    // Pour suivre l'ordre des bonnes réponses sur la question courante
+    private final List<String> correctAnswerOrder = new ArrayList<>();
+    // Joueurs déjà passés sur la question courante
+    private final Set<Long> answeredPlayers = new HashSet<>();
+    // Indique si la fenêtre de réponse est ouverte
+    private boolean answerWindowStarted;
+
+    private int currentQuestionIndex;
+    private boolean finished;
+    private boolean waitingForNext;
+
+    // numéro du dernier évènement publié sur /game/{gameId}
+    private long seq;
+
+    // Pour pouvoir annuler le timer si besoin
+    private GameTimerService.Timeout nextQuestionTimer;
+
+    private final GameMailbox mailbox = new GameMailbox();
+
+    public GameState(String gameId, Long gameDbId, String roomId, List<QuestionDTO> questions) {
+        this.gameId = gameId;
+        this.gameDbId = gameDbId;
+        this.roomId = roomId;
+        this.questions = List.copyOf(questions);
+    }
+
+    /**
+     * Commande sur l'état (réponse, arrivée, départ, joker, minuterie), exécutée dans l'ordre de dépôt.
+     */
+    public void post(Runnable command) {
+        mailbox.post(command);
+    }
+
+    /**
+     * Lecture de l'état, exécutée à son tour dans la boîte aux lettres.
+     */
+    public <T> CompletableFuture<T> call(Supplier<T> query) {
+        return mailbox.call(query);
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Long getGameDbId() {
+        return gameDbId;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public QuestionDTO getCurrentQuestion() {
+        if (currentQuestionIndex < questions.size()) {
+            return questions.get(currentQuestionIndex);
+        }
+        return null;
+    }
+
+    /**
+     * Passe à la question suivante et réinitialise la fenêtre de réponse.
+     * @return false si la partie est terminée
+     */
+    public boolean nextQuestion() {
+        resetAnswerWindow();
+        currentQuestionIndex++;
+        if (currentQuestionIndex >= questions.size()) {
+            finished = true;
+            return false;
+        }
+        return true;
+    }
+
+    public void resetAnswerWindow() {
+        answeredPlayers.clear();
+        correctAnswerOrder.clear();
+        answerWindowStarted = false;
+        cancelNextQuestionTimer();
+    }
+
+    public void cancelNextQuestionTimer() {
+        if (nextQuestionTimer != null) {
+            nextQuestionTimer.cancel();
+            nextQuestionTimer = null;
+        }
+    }
+
+    public Optional<String> findUsername(String participantId) {
+        try {
+            return Optional.ofNullable(participants.get(Long.valueOf(participantId)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void addParticipant(Long participantId, String username) {
+        participants.put(participantId, username);
+    }
+
+    public String removeParticipant(Long participantId) {
+        answeredPlayers.remove(participantId);
+        return participants.remove(participantId);
+    }
+
+    public boolean hasParticipant(Long participantId) {
+        return participants.containsKey(participantId);
+    }
+
+    public int addScore(String player, int points) {
+        int newScore = Math.max(scores.getOrDefault(player, 0) + points, 0);
+        scores.put(player, newScore);
+        return newScore;
+    }
+
+    public void putScore(String player, int score) {
+        scores.put(player, score);
+    }
+
+    public Map<String, Integer> getScores() {
+        return Collections.unmodifiableMap(scores);
+    }
+
+    public List<String> getCorrectAnswerOrder() {
+        return correctAnswerOrder;
+    }
+
+    public void recordAnswer(Long participantId) {
+        answeredPlayers.add(participantId);
+    }
+
+    public boolean allParticipantsAnswered() {
+        return answeredPlayers.containsAll(participants.keySet());
+    }
+
+    public boolean isAnswerWindowStarted() {
+        return answerWindowStarted;
+    }
+
+    public void setAnswerWindowStarted(boolean answerWindowStarted) {
+        this.answerWindowStarted = answerWindowStarted;
+    }
+
+    public int getCurrentQuestionIndex() {
+        return currentQuestionIndex;
+    }
+
+    public void setCurrentQuestionIndex(int currentQuestionIndex) {
+        this.currentQuestionIndex = currentQuestionIndex;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public boolean isWaitingForNext() {
+        return waitingForNext;
+    }
+
+    public void setWaitingForNext(boolean waitingForNext) {
+        this.waitingForNext = waitingForNext;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Reprend la numérotation d'un autre nœud, après une passation de la partie.
+     */
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public long nextSeq() {
+        return ++seq;
+    }
+
+    public boolean hasNextQuestionTimer() {
+        return nextQuestionTimer != null;
+    }
+
+    /**
+     * @return true si {@code timer} est la minuterie attendue, et non une minuterie annulée
+     * dont la tâche était déjà partie
+     */
+    public boolean isNextQuestionTimer(GameTimerService.Timeout timer) {
+        return nextQuestionTimer == timer;
+    }
+
+    public void setNextQuestionTimer(GameTimerService.Timeout nextQuestionTimer) {
+        this.nextQuestionTimer = nextQuestionTimer;
+    }
+
+    /**
+     * Copie des champs de progression à persister, prise dans la boîte aux lettres.
+     * Les scores passent par {@link ScoreJournal}.
+     */
+    public Progress snapshotProgress() {
+        return new Progress(gameId, currentQuestionIndex, finished, waitingForNext);
+    }
+
+    /**
+     * Transforme l'état en DTO pour l'envoi au frontend
+     */
+    public QuizGameDTO toDTO() {
+        QuizGameDTO dto = new QuizGameDTO();
+        dto.setRoomId(roomId);
+        dto.setGameId(gameId);
+        dto.setCurrentQuestion(getCurrentQuestion());
+        dto.setQuestions(questions);
+        dto.setScores(scores.entrySet().stream()
+                .map(e -> new ScoreDTO(e.getKey(), e.getValue()))
+                .toList());
+        dto.setFinished(finished);
+        dto.setParticipants(participants.entrySet().stream()
+                .map(e -> new ParticipantDTO(e.getKey(), e.getValue(), 0, null))
+                .toList());
+        dto.setCurrentQuestionIndex(currentQuestionIndex);
+        dto.setWaitingForNext(waitingForNext);
+        return dto;
+    }
+
+    public record Progress(String gameId, int currentQuestionIndex, boolean finished,
+                           boolean waitingForNext) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.main.triviatreckapp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Registre des parties en cours, source de vérité pendant la partie.
+ * Les réponses sont traitées en mémoire ; la progression est écrite
+ * en base par lots, de manière asynchrone.
+ * <p>
+ * Une partie terminée, ou inconnue, est gardée à part pendant {@code quiz.engine.parked-ttl-ms} :
+ * les réponses tardives et les abonnements qui la visent ne relisent pas la base à chaque trame.
+ */
+@Slf4j
+@Service
+public class GameStateEngine {
+
+    private final GameStatePersister persister;
+    private final SnapshotCache snapshots;
+
+    private final Map<String, GameState> states = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // parties terminées (état final) ou inconnues (état null), jusqu'à expiration
+    private final Map<String, Parked> parked = new ConcurrentHashMap<>();
+    private final long parkedTtlNanos;
+
+    public GameStateEngine(GameStatePersister persister, SnapshotCache snapshots,
+                           @Value("${quiz.engine.parked-ttl-ms:60000}") long parkedTtlMs) {
+        this.persister = persister;
+        this.snapshots = snapshots;
+        this.parkedTtlNanos = TimeUnit.MILLISECONDS.toNanos(parkedTtlMs);
+    }
+
+    /**
+     * Récupère l'état d'une partie, en le reconstruisant depuis la base s'il n'est pas en mémoire.
+     * Une partie terminée n'est pas remise parmi les parties en cours : elle est gardée à part,
+     * comme l'absence d'une partie inconnue.
+     */
+    public Optional<GameState> find(String gameId) {
+        GameState state = states.get(gameId);
+        if (state != null) {
+            return Optional.of(state);
+        }
+        Parked known = parked.get(gameId);
+        if (known != null && known.isValid(System.nanoTime())) {
+            return Optional.ofNullable(known.state());
+        }
+        Optional<GameState> loaded = persister.load(gameId);
+        // pas encore partagé : lu hors de la boîte aux lettres
+        if (loaded.isEmpty() || loaded.get().isFinished()) {
+            park(gameId, loaded.orElse(null));
+            return loaded;
+        }
+        return Optional.of(states.computeIfAbsent(gameId, id -> loaded.get()));
+    }
+
+    /**
+     * État de la partie s'il est déjà en mémoire, sans accès à la base.
+     */
+    public Optional<GameState> findLoaded(String gameId) {
+        return Optional.ofNullable(states.get(gameId));
+    }
+
+    /**
+     * Enregistre (ou remplace) l'état d'une partie qui vient d'être créée.
+     */
+    public void register(GameState state) {
+        GameState previous = states.put(state.getGameId(), state);
+        parked.remove(state.getGameId());
+        snapshots.invalidate(SnapshotCache.Kind.GAME, state.getGameId());
+        if (previous != null) {
+            cancelTimer(previous);
+        }
+    }
+
+    public void evict(String gameId) {
+        dirty.remove(gameId);
+        parked.remove(gameId);
+        GameState removed = states.remove(gameId);
+        snapshots.evict(SnapshotCache.Kind.GAME, gameId);
+        if (removed != null) {
+            cancelTimer(removed);
+        }
+    }
+
+    /**
+     * Recharge une partie depuis la base en remplaçant l'état en mémoire, s'il y en a un.
+     * Une partie terminée ou inexistante n'est pas chargée.
+     */
+    public Optional<GameState> reload(String gameId) {
+        Optional<GameState> loaded = persister.load(gameId).filter(state -> !state.isFinished());
+        loaded.ifPresent(this::register);
+        return loaded;
+    }
+
+    /**
+     * Rend une partie confiée à un autre nœud : elle quitte la mémoire, sa minuterie est annulée
+     * et sa progression écrite avant que le nouveau propriétaire la recharge.
+     * @return le numéro du dernier évènement publié, vide si la partie n'était pas en mémoire
+     */
+    public OptionalLong release(String gameId) {
+        dirty.remove(gameId);
+        parked.remove(gameId);
+        GameState state = states.remove(gameId);
+        snapshots.evict(SnapshotCache.Kind.GAME, gameId);
+        if (state == null) {
+            return OptionalLong.empty();
+        }
+        // les commandes déjà déposées passent avant : la copie est la dernière version
+        GameState.Progress progress = state.call(() -> {
+            state.cancelNextQuestionTimer();
+            return state.snapshotProgress();
+        }).join();
+        persister.persist(List.of(progress));
+        return OptionalLong.of(state.call(state::getSeq).join());
+    }
+
+    public Set<String> loadedGameIds() {
+        return Set.copyOf(states.keySet());
+    }
+
+    public void markDirty(GameState state) {
+        dirty.add(state.getGameId());
+    }
+
+    /**
+     * Reconstruit en mémoire les parties non terminées de ce nœud, après un redémarrage
+     * ou le départ d'un autre nœud. Les parties déjà en mémoire ne sont pas touchées.
+     */
+    public List<GameState> recover(Predicate<String> owned) {
+        List<GameState> recovered = new ArrayList<>();
+        for (GameState state : persister.loadActive(owned)) {
+            if (states.putIfAbsent(state.getGameId(), state) == null) {
+                recovered.add(state);
+            }
+        }
+        log.info("{} partie(s) restaurée(s) depuis la base", recovered.size());
+        return recovered;
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.engine.flush-interval-ms:500}")
+    public void flushDirty() {
+        long now = System.nanoTime();
+        parked.values().removeIf(p -> !p.isValid(now));
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(dirty);
+        ids.forEach(dirty::remove);
+
+        // les copies sont prises à leur tour dans chaque boîte aux lettres, en parallèle
+        Map<String, GameState> flushed = new HashMap<>();
+        List<CompletableFuture<GameState.Progress>> pending = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            GameState state = states.get(id);
+            if (state != null) {
+                flushed.put(id, state);
+                pending.add(state.call(state::snapshotProgress));
+            }
+        }
+        List<GameState.Progress> batch = pending.stream().map(CompletableFuture::join).toList();
+
+        try {
+            persister.persist(batch);
+        } catch (Exception e) {
+            log.error("Échec de l'écriture de {} partie(s), nouvel essai au prochain cycle", batch.size(), e);
+            dirty.addAll(ids);
+            return;
+        }
+
+        // cleanup si la partie est finie et écrite ; « terminée » est lu dans la copie,
+        // pas dans l'état, et une partie recréée entre-temps sous le même id reste en place
+        for (GameState.Progress progress : batch) {
+            String id = progress.gameId();
+            GameState state = flushed.get(id);
+            if (progress.finished() && !dirty.contains(id) && states.remove(id, state)) {
+                park(id, state);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushDirty();
+    }
+
+    private void cancelTimer(GameState state) {
+        state.post(state::cancelNextQuestionTimer);
+    }
+
+    private void park(String gameId, GameState state) {
+        parked.put(gameId, new Parked(state, System.nanoTime() + parkedTtlNanos));
+    }
+
+    private record Parked(GameState state, long expiresAt) {
+
+        boolean isValid(long now) {
+            return now - expiresAt < 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.entities.Participant;
+import com.main.triviatreckapp.entities.QuizGame;
+import com.main.triviatreckapp.repository.QuizGameRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Passerelle entre {@link GameState} et les tables quiz_games :
+ * reconstruction de l'état après un redémarrage et écriture différée de la progression.
+ */
+@Service
+public class GameStatePersister {
+
+    private static final TypeReference<List<QuestionDTO>> QUESTION_SET = new TypeReference<>() {
+    };
+
+    private final QuizGameRepository gameRepository;
+    private final QuestionCatalogService questionCatalogService;
+    private final ObjectMapper objectMapper;
+
+    public GameStatePersister(QuizGameRepository gameRepository, QuestionCatalogService questionCatalogService,
+                              ObjectMapper objectMapper) {
+        this.gameRepository = gameRepository;
+        this.questionCatalogService = questionCatalogService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Fige sur la partie ses questions telles que {@code catalog} les décrit, ordre des options compris.
+     * C'est cette copie qui sert après un redémarrage, une passation ou un rechargement,
+     * quelle que soit la version du catalogue à ce moment-là.
+     */
+    public void freezeQuestions(QuizGame game, QuestionCatalog catalog) {
+        List<QuestionDTO> questions = toDTOs(game, catalog);
+        try {
+            game.setQuestionSet(objectMapper.writeValueAsString(questions));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<GameState> load(String gameId) {
+        return gameRepository.findWithAllByGameId(gameId).map(this::fromEntity);
+    }
+
+    /**
+     * Parties non terminées dont l'identifiant est accepté par {@code owned}.
+     */
+    @Transactional(readOnly = true)
+    public List<GameState> loadActive(Predicate<String> owned) {
+        return gameRepository.findActiveGameIds().stream()
+                .filter(owned)
+                .map(this::load)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * Construit l'état mémoire d'une partie, avec les questions figées à son lancement.
+     * Une partie lancée avant qu'elles ne soient figées les reprend dans le catalogue courant ;
+     * seules celles qui n'y figurent plus sont chargées depuis la base, d'où la transaction.
+     */
+    public GameState fromEntity(QuizGame game) {
+        List<QuestionDTO> questions = game.getQuestionSet() != null
+                ? readQuestionSet(game.getQuestionSet())
+                : toDTOs(game, questionCatalogService.current());
+        GameState state = new GameState(game.getGameId(), game.getId(), game.getRoom().getRoomId(), questions);
+        for (Participant p : game.getParticipants()) {
+            state.addParticipant(p.getId(), p.getUsername());
+        }
+        game.getScores().forEach(state::putScore);
+        state.setCurrentQuestionIndex(game.getCurrentQuestionIndex());
+        state.setFinished(game.isFinished());
+        state.setWaitingForNext(game.isWaitingForNext());
+        return state;
+    }
+
+    private static List<QuestionDTO> toDTOs(QuizGame game, QuestionCatalog catalog) {
+        return game.getQuestions().stream()
+                .filter(Objects::nonNull)
+                .map(q -> catalog.findById(q.getId())
+                        .map(QuestionCatalog.Entry::toDTO)
+                        .orElseGet(() -> QuestionDTO.fromEntity(q)))
+                .toList();
+    }
+
+    private List<QuestionDTO> readQuestionSet(String json) {
+        try {
+            return objectMapper.readValue(json, QUESTION_SET);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit en une seule transaction la progression de toutes les parties modifiées.
+     * Les scores sont écrits séparément par {@link ScoreJournal}.
+     */
+    @Transactional
+    public void persist(Collection<GameState.Progress> batch) {
+        for (GameState.Progress progress : batch) {
+            gameRepository.updateProgress(progress.gameId(), progress.currentQuestionIndex(),
+                    progress.finished(), progress.waitingForNext());
+        }
+    }
+}
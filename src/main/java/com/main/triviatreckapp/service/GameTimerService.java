@@ -0,0 +1,236 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Minuteries des parties sur une roue temporelle hachée.
+ * <p>
+ * Programmer et annuler se font en O(1) : le thread appelant dépose la minuterie
+ * dans une file, et seul le thread de la roue touche aux cases. À chaque tick,
+ * ce thread expire la case courante d'un coup et lance chaque tâche échue
+ * sur un thread virtuel.
+ * La précision est d'un tick (quiz.timers.tick-ms).
+ */
+@Slf4j
+@Service
+public class GameTimerService {
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer lag;
+
+    private Thread worker;
+    private volatile boolean running;
+    // origine des ticks, fixée au démarrage du thread de la roue
+    private volatile long startNanos;
+
+    public GameTimerService(@Value("${quiz.timers.tick-ms:100}") long tickMs,
+                            @Value("${quiz.timers.wheel-size:512}") int wheelSize,
+                            MeterRegistry meterRegistry) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) * 2 - 1);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.lag = Timer.builder("quiz.timers.lag")
+                .description("Retard entre l'échéance d'une minuterie et son exécution")
+                .register(meterRegistry);
+        meterRegistry.gauge("quiz.timers.scheduled", scheduled);
+    }
+
+    @PostConstruct
+    public void start() {
+        startNanos = System.nanoTime();
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("game-timer-wheel").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Programme {@code task} dans {@code delay}.
+     * La tâche reçoit sa propre minuterie, ce qui lui permet de vérifier qu'elle est toujours attendue.
+     */
+    public Timeout schedule(Duration delay, Consumer<Timeout> task) {
+        Timeout timeout = new Timeout(this, System.nanoTime() + Math.max(delay.toNanos(), 0), task);
+        scheduled.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            removeCancelled();
+            transferPending(tick);
+            wheel[(int) (tick & mask)].expire(this);
+            tick++;
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            // une échéance déjà passée est traitée au tick courant
+            long due = Math.max((timeout.deadline - startNanos) / tickNanos, currentTick);
+            timeout.remainingRounds = (due - currentTick) / wheel.length;
+            wheel[(int) (due & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void dispatch(Timeout timeout) {
+        scheduled.decrementAndGet();
+        dispatcher.execute(() -> {
+            lag.record(System.nanoTime() - timeout.deadline, TimeUnit.NANOSECONDS);
+            try {
+                timeout.task.accept(timeout);
+            } catch (Exception e) {
+                log.error("Échec d'une minuterie de partie", e);
+            }
+        });
+    }
+
+    /**
+     * Minuterie programmée. Annulable depuis n'importe quel thread.
+     */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final GameTimerService timers;
+        private final long deadline;
+        private final Consumer<Timeout> task;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // champs réservés au thread de la roue
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(GameTimerService timers, long deadline, Consumer<Timeout> task) {
+            this.timers = timers;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * @return false si la minuterie a déjà expiré ou était déjà annulée
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timers.scheduled.decrementAndGet();
+            timers.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    /**
+     * Case de la roue : liste doublement chaînée, manipulée par le seul thread de la roue.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(GameTimerService timers) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                } else {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                        timers.dispatch(timeout);
+                    }
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.main.triviatreckapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent : chaque nœud y occupe {@code virtualNodes} positions, une clé appartient
+ * au premier nœud rencontré dans le sens horaire. L'arrivée ou le départ d'un nœud ne déplace que
+ * les clés de ses positions, environ 1/n des parties.
+ * Le hachage ne dépend ni de la JVM ni de l'ordre des nœuds : tous les nœuds calculent le même anneau.
+ */
+final class HashRing {
+
+    private final NavigableMap<Long, String> positions = new TreeMap<>();
+
+    HashRing(Collection<String> nodeIds, int virtualNodes) {
+        nodeIds.stream().sorted().forEach(id -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                positions.putIfAbsent(hash(id + "#" + i), id);
+            }
+        });
+    }
+
+    /**
+     * @return le nœud propriétaire de {@code key}, null si l'anneau est vide
+     */
+    String ownerOf(String key) {
+        if (positions.isEmpty()) {
+            return null;
+        }
+        var owner = positions.ceilingEntry(hash(key));
+        return (owner != null ? owner : positions.firstEntry()).getValue();
+    }
+
+    /**
+     * FNV-1a 64 bits sur l'UTF-8, suivi du mélange final de MurmurHash3 pour étaler les clés proches.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
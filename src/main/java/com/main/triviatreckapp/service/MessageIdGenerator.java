@@ -0,0 +1,49 @@
+package com.main.triviatreckapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Identifiants de messages attribués en mémoire, sans aller-retour en base.
+ * Format sur 63 bits : millisecondes depuis 2024-01-01 (41 bits), numéro de nœud (10 bits),
+ * compteur dans la milliseconde (12 bits). Les ids d'un nœud sont strictement croissants,
+ * ce qui garde l'ordre d'affichage et le curseur de pagination (before=id).
+ */
+@Component
+public class MessageIdGenerator {
+
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMs = -1;
+    private long sequence;
+
+    public MessageIdGenerator(@Value("${quiz.node-id:0}") long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("quiz.node-id doit être compris entre 0 et " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId() {
+        // horloge qui recule : on reste sur la dernière milliseconde connue
+        long now = Math.max(System.currentTimeMillis() - EPOCH_MS, lastMs);
+        if (now == lastMs) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 4096 ids dans la milliseconde : on emprunte la suivante
+                now = ++lastMs;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMs = now;
+        return (now << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,196 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.entities.Question;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Catalogue immuable des questions, chargé une fois puis partagé entre les parties.
+ * Les questions sont triées par id ; les index par catégorie et par difficulté
+ * sont des tableaux de positions dans ce tri.
+ */
+public final class QuestionCatalog {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final long version;
+    private final long[] ids;
+    private final Entry[] entries;
+    private final int[] all;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, int[]> byDifficulty;
+    private final Map<String, int[]> byCategoryAndDifficulty;
+    private final Map<String, Integer> countByPack;
+
+    private QuestionCatalog(long version, Entry[] entries) {
+        this.version = version;
+        this.entries = entries;
+        this.ids = new long[entries.length];
+        this.all = new int[entries.length];
+
+        Map<String, List<Integer>> cat = new HashMap<>();
+        Map<String, List<Integer>> diff = new HashMap<>();
+        Map<String, List<Integer>> catDiff = new HashMap<>();
+        Map<String, Integer> packs = new TreeMap<>();
+        for (int i = 0; i < entries.length; i++) {
+            ids[i] = entries[i].id();
+            all[i] = i;
+            cat.computeIfAbsent(entries[i].categoryId(), k -> new ArrayList<>()).add(i);
+            diff.computeIfAbsent(entries[i].difficulty(), k -> new ArrayList<>()).add(i);
+            catDiff.computeIfAbsent(key(entries[i].categoryId(), entries[i].difficulty()), k -> new ArrayList<>()).add(i);
+            packs.merge(Objects.requireNonNullElse(entries[i].pack(), ""), 1, Integer::sum);
+        }
+        this.byCategory = toArrays(cat);
+        this.byDifficulty = toArrays(diff);
+        this.byCategoryAndDifficulty = toArrays(catDiff);
+        this.countByPack = Collections.unmodifiableMap(packs);
+    }
+
+    public static QuestionCatalog of(long version, Collection<Question> questions) {
+        Entry[] entries = questions.stream()
+                .filter(q -> q.getId() != null)
+                .map(Entry::from)
+                .sorted(Comparator.comparingLong(Entry::id))
+                .toArray(Entry[]::new);
+        return new QuestionCatalog(version, entries);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return nombre de questions par pack, "" pour les questions sans pack
+     */
+    public Map<String, Integer> countByPack() {
+        return countByPack;
+    }
+
+    public Optional<Entry> findById(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? Optional.of(entries[i]) : Optional.empty();
+    }
+
+    /**
+     * Tire {@code count} questions distinctes au hasard.
+     * @param categoryId catégorie voulue, ou null pour toutes
+     * @param difficulty difficulté voulue, ou null pour toutes
+     * @return les ids tirés (moins de {@code count} si le catalogue n'en contient pas assez)
+     */
+    public long[] sample(String categoryId, String difficulty, int count, RandomGenerator random) {
+        int[] picked = sampleWithoutReplacement(pool(categoryId, difficulty), count, random, null);
+        long[] result = new long[picked.length];
+        for (int i = 0; i < picked.length; i++) {
+            result[i] = ids[picked[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Compose une partie à partir de plusieurs tirages, dans l'ordre des lignes.
+     * Une question n'est jamais tirée deux fois, même si deux lignes se recouvrent
+     * (ex : « HISTOIRE facile » puis « toutes catégories, facile »).
+     * @return les ids tirés ; une ligne que le catalogue ne peut pas remplir est complétée au mieux
+     */
+    public long[] compose(List<Slot> slots, RandomGenerator random) {
+        BitSet taken = new BitSet(entries.length);
+        long[] result = new long[slots.stream().mapToInt(s -> Math.max(s.count(), 0)).sum()];
+        int n = 0;
+        for (Slot slot : slots) {
+            for (int picked : sampleWithoutReplacement(pool(slot.categoryId(), slot.difficulty()),
+                    slot.count(), random, taken)) {
+                result[n++] = ids[picked];
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    int[] pool(String categoryId, String difficulty) {
+        if (categoryId == null && difficulty == null) {
+            return all;
+        }
+        if (categoryId == null) {
+            return byDifficulty.getOrDefault(difficulty, EMPTY);
+        }
+        if (difficulty == null) {
+            return byCategory.getOrDefault(categoryId, EMPTY);
+        }
+        return byCategoryAndDifficulty.getOrDefault(key(categoryId, difficulty), EMPTY);
+    }
+
+    /**
+     * Fisher–Yates partiel : on ne mélange que le préfixe nécessaire de {@code pool}.
+     * Les échanges sont notés à part pour ne pas modifier {@code pool}, partagé entre threads.
+     * @param taken positions déjà tirées, ignorées puis complétées avec ce tirage ; peut être null
+     */
+    static int[] sampleWithoutReplacement(int[] pool, int count, RandomGenerator random, BitSet taken) {
+        int n = pool.length;
+        int[] out = new int[Math.max(Math.min(count, n), 0)];
+        Map<Integer, Integer> swapped = new HashMap<>(out.length * 2);
+        int picked = 0;
+        for (int i = 0; i < n && picked < out.length; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = swapped.getOrDefault(j, j);
+            // la case i n'est plus jamais relue
+            swapped.put(j, swapped.getOrDefault(i, i));
+            swapped.remove(i);
+            int candidate = pool[atJ];
+            if (taken != null) {
+                if (taken.get(candidate)) {
+                    continue;
+                }
+                taken.set(candidate);
+            }
+            out[picked++] = candidate;
+        }
+        return picked == out.length ? out : Arrays.copyOf(out, picked);
+    }
+
+    private static String key(String categoryId, String difficulty) {
+        return categoryId + '|' + difficulty;
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((k, v) -> arrays.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+        return Collections.unmodifiableMap(arrays);
+    }
+
+    /**
+     * Ligne de composition ; categoryId ou difficulty à null signifie « toutes ».
+     */
+    public record Slot(String categoryId, String difficulty, int count) {
+    }
+
+    /**
+     * Question figée du catalogue.
+     */
+    public record Entry(long id, String question, String difficulty, String category, String categoryId,
+                        String correctAnswer, List<String> incorrectAnswers, String pack) {
+
+        static Entry from(Question q) {
+            List<String> incorrect = q.getIncorrectAnswers() != null
+                    ? Collections.unmodifiableList(new ArrayList<>(q.getIncorrectAnswers()))
+                    : List.of();
+            return new Entry(q.getId(), q.getQuestion(), q.getDifficulty(), q.getCategory(), q.getCategoryId(),
+                    q.getCorrectAnswer(), incorrect, q.getPack());
+        }
+
+        public QuestionDTO toDTO() {
+            List<String> options = new ArrayList<>(incorrectAnswers.size() + 1);
+            if (correctAnswer != null) {
+                options.add(correctAnswer);
+            }
+            options.addAll(incorrectAnswers);
+            Collections.shuffle(options);
+            return new QuestionDTO(id, question, difficulty, category, categoryId,
+                    correctAnswer, incorrectAnswers, options);
+        }
+    }
+}
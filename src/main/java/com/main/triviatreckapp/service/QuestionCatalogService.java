@@ -0,0 +1,66 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Détient la version courante du {@link QuestionCatalog}.
+ * Un rechargement construit un nouveau catalogue puis le publie d'un coup ;
+ * les lecteurs ne voient jamais un catalogue partiel.
+ */
+@Slf4j
+@Service
+public class QuestionCatalogService {
+
+    private final QuestionRepository questionRepository;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile QuestionCatalog current;
+    private volatile Duration lastReloadDuration = Duration.ZERO;
+    private volatile Instant lastReloadAt;
+
+    public QuestionCatalogService(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    public QuestionCatalog current() {
+        QuestionCatalog catalog = current;
+        if (catalog == null) {
+            synchronized (this) {
+                if (current == null) {
+                    reload();
+                }
+                catalog = current;
+            }
+        }
+        return catalog;
+    }
+
+    @Transactional(readOnly = true)
+    public synchronized QuestionCatalog reload() {
+        long start = System.nanoTime();
+        QuestionCatalog catalog = QuestionCatalog.of(versions.incrementAndGet(),
+                questionRepository.findAllWithIncorrectAnswers());
+        // les parties déjà lancées ont copié leurs questions : elles ne voient pas ce changement
+        current = catalog;
+        lastReloadDuration = Duration.ofNanos(System.nanoTime() - start);
+        lastReloadAt = Instant.now();
+        log.info("Catalogue de questions v{} chargé : {} questions en {} ms", catalog.getVersion(),
+                catalog.size(), lastReloadDuration.toMillis());
+        return catalog;
+    }
+
+    public Duration getLastReloadDuration() {
+        return lastReloadDuration;
+    }
+
+    public Instant getLastReloadAt() {
+        return lastReloadAt;
+    }
+}
@@ -0,0 +1,232 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.triviatreckapp.entities.Question;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Import incrémental du fichier de questions.
+ * Le JSON est lu objet par objet ; seules les questions nouvelles ou modifiées
+ * (hash de contenu différent) sont écrites, par lots JDBC.
+ * Les questions ne sont jamais supprimées : les parties en cours gardent les leurs.
+ */
+@Slf4j
+@Service
+public class QuestionImporter {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO questions (content_key, content_hash, pack, question, difficulty, category, category_id, correct_answer)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (content_key) DO UPDATE SET
+                content_hash = EXCLUDED.content_hash,
+                pack = EXCLUDED.pack,
+                difficulty = EXCLUDED.difficulty,
+                category = EXCLUDED.category,
+                correct_answer = EXCLUDED.correct_answer
+            """;
+    private static final String INSERT_ANSWER_SQL =
+            "INSERT INTO question_incorrect_answers (question_id, incorrect_answer) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final Timer importDuration;
+
+    @Value("${quiz.questions.import.batch-size:200}")
+    private int batchSize;
+
+    public QuestionImporter(JdbcTemplate jdbcTemplate,
+                            NamedParameterJdbcTemplate namedJdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        meterRegistry.gauge("quiz.questions.import.processed", processed);
+        meterRegistry.gauge("quiz.questions.import.changed", changed);
+        this.importDuration = Timer.builder("quiz.questions.import.duration")
+                .description("Durée d'un import de questions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Importe les questions de {@code source}. Les imports sont faits l'un après l'autre.
+     * @param pack nom du pack noté sur chaque question
+     * @return le nombre de questions insérées ou modifiées
+     */
+    public synchronized long importFrom(String pack, Resource source) throws IOException {
+        long start = System.nanoTime();
+        processed.set(0);
+        changed.set(0);
+        backfillContentKeys();
+        Map<String, String> known = loadContentHashes();
+
+        List<Question> batch = new ArrayList<>(batchSize);
+        try (InputStream in = source.getInputStream();
+             JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Tableau JSON attendu dans " + source.getDescription());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Question question = parser.readValueAs(Question.class);
+                processed.incrementAndGet();
+                question.setPack(pack);
+                question.setContentKey(contentKey(question));
+                question.setContentHash(contentHash(question));
+                // une question présente deux fois dans le fichier n'est écrite qu'une fois
+                if (question.getContentHash().equals(known.put(question.getContentKey(), question.getContentHash()))) {
+                    continue;
+                }
+                batch.add(question);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+        long nanos = System.nanoTime() - start;
+        importDuration.record(nanos, TimeUnit.NANOSECONDS);
+        log.info("Import de {} : {} questions lues, {} écrites en {} ms", source.getDescription(),
+                processed.get(), changed.get(), nanos / 1_000_000);
+        return changed.get();
+    }
+
+    private void writeBatch(List<Question> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch.stream()
+                    .map(q -> new Object[]{q.getContentKey(), q.getContentHash(), q.getPack(), q.getQuestion(),
+                            q.getDifficulty(), q.getCategory(), q.getCategoryId(), q.getCorrectAnswer()})
+                    .toList());
+
+            Map<String, Long> ids = new HashMap<>(batch.size() * 2);
+            namedJdbcTemplate.query("SELECT id, content_key FROM questions WHERE content_key IN (:keys)",
+                    Map.of("keys", batch.stream().map(Question::getContentKey).toList()),
+                    rs -> {
+                        ids.put(rs.getString("content_key"), rs.getLong("id"));
+                    });
+
+            namedJdbcTemplate.update("DELETE FROM question_incorrect_answers WHERE question_id IN (:ids)",
+                    Map.of("ids", ids.values()));
+            List<Object[]> answers = new ArrayList<>(batch.size() * 3);
+            for (Question q : batch) {
+                Long id = ids.get(q.getContentKey());
+                if (q.getIncorrectAnswers() != null) {
+                    q.getIncorrectAnswers().forEach(answer -> answers.add(new Object[]{id, answer}));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, answers);
+        });
+        changed.addAndGet(batch.size());
+    }
+
+    private Map<String, String> loadContentHashes() {
+        Map<String, String> hashes = new HashMap<>();
+        jdbcTemplate.query("SELECT content_key, content_hash FROM questions WHERE content_key IS NOT NULL",
+                rs -> {
+                    hashes.put(rs.getString("content_key"), rs.getString("content_hash"));
+                });
+        return hashes;
+    }
+
+    /**
+     * Donne une clé aux questions écrites avant l'import incrémental.
+     * Les doublons (même catégorie, même énoncé) sont supprimés s'ils ne sont liés à aucune partie ;
+     * sinon ils restent sans clé et sortent du catalogue.
+     */
+    private void backfillContentKeys() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> keys = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT content_key FROM questions WHERE content_key IS NOT NULL", String.class));
+            List<Object[]> updates = new ArrayList<>();
+            List<Long> duplicates = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, category_id, question FROM questions WHERE content_key IS NULL ORDER BY id",
+                    rs -> {
+                        String key = contentKey(rs.getString("category_id"), rs.getString("question"));
+                        if (keys.add(key)) {
+                            updates.add(new Object[]{key, rs.getLong("id")});
+                        } else {
+                            duplicates.add(rs.getLong("id"));
+                        }
+                    });
+            if (updates.isEmpty() && duplicates.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("UPDATE questions SET content_key = ? WHERE id = ?", updates);
+            if (!duplicates.isEmpty()) {
+                Map<String, Object> params = Map.of("ids", duplicates);
+                String unused = "id IN (:ids) AND NOT EXISTS (SELECT 1 FROM question_quiz_game g WHERE g.question_id = q.id)";
+                namedJdbcTemplate.update("DELETE FROM question_incorrect_answers WHERE question_id IN "
+                        + "(SELECT q.id FROM questions q WHERE " + unused + ")", params);
+                namedJdbcTemplate.update("DELETE FROM questions q WHERE " + unused, params);
+            }
+            log.info("Clés de contenu attribuées à {} question(s), {} doublon(s) écartés",
+                    updates.size(), duplicates.size());
+        });
+    }
+
+    static String contentKey(Question q) {
+        return contentKey(q.getCategoryId(), q.getQuestion());
+    }
+
+    static String contentKey(String categoryId, String question) {
+        return sha256(categoryId, question);
+    }
+
+    static String contentHash(Question q) {
+        List<String> parts = new ArrayList<>();
+        parts.add(q.getPack());
+        parts.add(q.getCategoryId());
+        parts.add(q.getQuestion());
+        parts.add(q.getDifficulty());
+        parts.add(q.getCategory());
+        parts.add(q.getCorrectAnswer());
+        if (q.getIncorrectAnswers() != null) {
+            parts.addAll(q.getIncorrectAnswers());
+        }
+        return sha256(parts.toArray(String[]::new));
+    }
+
+    private static String sha256(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                if (part != null) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                // séparateur : ("ab", "c") et ("a", "bc") ne donnent pas le même hash
+                digest.update((byte) 0x1f);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.main.triviatreckapp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Surveille le dossier des packs de questions (quiz.packs.directory).
+ * Chaque fichier .json créé ou modifié est importé, puis une nouvelle version du catalogue
+ * est publiée. Les parties en cours gardent les questions qu'elles ont déjà tirées.
+ * Sans dossier configuré, la surveillance est désactivée.
+ */
+@Slf4j
+@Component
+public class QuestionPackWatcher {
+
+    private final QuestionImporter questionImporter;
+    private final QuestionCatalogService questionCatalogService;
+
+    @Value("${quiz.packs.directory:}")
+    private String directory;
+
+    // un éditeur écrit souvent un fichier en plusieurs fois : on attend que le dossier se calme
+    @Value("${quiz.packs.debounce-ms:500}")
+    private long debounceMs;
+
+    private volatile WatchService watchService;
+
+    public QuestionPackWatcher(QuestionImporter questionImporter, QuestionCatalogService questionCatalogService) {
+        this.questionImporter = questionImporter;
+        this.questionCatalogService = questionCatalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+        Path dir = Path.of(directory).toAbsolutePath();
+        Files.createDirectories(dir);
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofVirtual().name("question-pack-watcher").start(() -> watch(dir));
+        log.info("Surveillance des packs de questions dans {}", dir);
+    }
+
+    private void watch(Path dir) {
+        try {
+            importPacks(listPacks(dir));
+            while (true) {
+                Set<Path> changed = new TreeSet<>();
+                collect(watchService.take(), dir, changed);
+                WatchKey key;
+                while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, dir, changed);
+                }
+                importPacks(changed);
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.info("Surveillance des packs de questions arrêtée");
+        }
+    }
+
+    private void collect(WatchKey key, Path dir, Set<Path> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(listPacks(dir));
+            } else if (event.context() instanceof Path name && isPack(name)) {
+                changed.add(dir.resolve(name));
+            }
+        }
+        key.reset();
+    }
+
+    private void importPacks(Set<Path> packs) {
+        long changed = 0;
+        for (Path pack : packs) {
+            if (!Files.isRegularFile(pack)) {
+                continue;
+            }
+            try {
+                changed += questionImporter.importFrom(pack.getFileName().toString(), new FileSystemResource(pack));
+            } catch (Exception e) {
+                // fichier en cours d'écriture ou invalide : la prochaine modification le réimportera
+                log.warn("Pack de questions {} ignoré : {}", pack.getFileName(), e.getMessage());
+            }
+        }
+        if (changed > 0) {
+            questionCatalogService.reload();
+        }
+    }
+
+    private static Set<Path> listPacks(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> isPack(f.getFileName())).collect(TreeSet::new, Set::add, Set::addAll);
+        } catch (IOException e) {
+            log.warn("Lecture du dossier {} impossible", dir, e);
+            return Set.of();
+        }
+    }
+
+    private static boolean isPack(Path name) {
+        return name.toString().endsWith(".json");
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package com.main.triviatreckapp.service;
 
 import com.main.triviatreckapp.entities.Question;
-import com.main.triviatreckapp.entities.QuizGame;
 import com.main.triviatreckapp.repository.QuestionRepository;
-import com.main.triviatreckapp.repository.QuizGameRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,11 +10,9 @@ import java.util.List;
 public class QuestionService {
 
     private final QuestionRepository questionRepository;
-    private final QuizGameRepository quizGameRepository;
 
-    public QuestionService(QuestionRepository questionRepository, QuizGameRepository quizGameRepository) {
+    public QuestionService(QuestionRepository questionRepository) {
         this.questionRepository = questionRepository;
-        this.quizGameRepository = quizGameRepository;
     }
 
     public Iterable<Question> list() {
@@ -27,19 +22,4 @@ public class QuestionService {
     public Iterable<Question> saveAll(List<Question> questions) {
         return questionRepository.saveAll(questions);
     }
-
-    @Transactional
-    public void deleteAll() {
-        // First, get all quiz games
-        List<QuizGame> quizGames = quizGameRepository.findAll();
-
-        // For each quiz game, clear the questions collection
-        for (QuizGame quizGame : quizGames) {
-            quizGame.getQuestions().clear();
-            quizGameRepository.save(quizGame);
-        }
-
-        // Now it's safe to delete all questions
-        questionRepository.deleteAll();
-    }
 }
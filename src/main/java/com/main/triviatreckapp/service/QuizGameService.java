@@ -1,114 +1,121 @@
 package com.main.triviatreckapp.service;
 
 import com.main.triviatreckapp.Request.PlayerJokerRequest;
+import com.main.triviatreckapp.Request.QuestionSlot;
 import com.main.triviatreckapp.Request.StartGameRequest;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.GameProgressDTO;
 import com.main.triviatreckapp.dto.JokerDTO;
-import com.main.triviatreckapp.dto.ParticipantDTO;
 import com.main.triviatreckapp.dto.PlayerAnswerDTO;
 import com.main.triviatreckapp.dto.QuestionDTO;
 import com.main.triviatreckapp.dto.QuizGameDTO;
-import com.main.triviatreckapp.dto.ScoreDTO;
-import com.main.triviatreckapp.entities.Message;
 import com.main.triviatreckapp.entities.Participant;
-import com.main.triviatreckapp.entities.Question;
 import com.main.triviatreckapp.entities.QuizGame;
 import com.main.triviatreckapp.entities.Room;
 import com.main.triviatreckapp.repository.QuestionRepository;
 import com.main.triviatreckapp.repository.QuizGameRepository;
-import com.main.triviatreckapp.repository.RoomRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 @Service
 public class QuizGameService {
     private final QuestionRepository questionRepository;
     private final QuizGameRepository gameRepository;
     private final RoomService roomService;
-    private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final RoomRepository roomRepository;
-    private final TaskScheduler gameTaskScheduler;
-
-    // Pour suivre l'ordre des bonnes réponses par partie
-    private final Map<String, List<String>> correctAnswerOrder = new ConcurrentHashMap<>();
-
-    // Indique si la fenêtre de 30s est ouverte pour chaque gameId
-    private final Map<String, Boolean> answerWindowStarted = new ConcurrentHashMap<>();
-
-    // Pour pouvoir annuler le timer si besoin
-    private final Map<String, ScheduledFuture<?>> scheduledFutures = new ConcurrentHashMap<>();
-
-    // ApplicationContext pour récupérer le proxy Spring
-    @Autowired
-    private ApplicationContext applicationContext;
+    private final GameTimerService gameTimers;
 
+    // État en mémoire des parties en cours
+    private final GameStateEngine gameEngine;
+    private final GameStatePersister gameStatePersister;
+    private final ScoreJournal scoreJournal;
+    private final GameEventPublisher eventPublisher;
+    private final QuestionCatalogService questionCatalogService;
+    private final RoomEventPublisher roomEvents;
 
     @Value("${quiz.questions-per-game:10}")
     private int questionsPerGame;
 
-    @Value("${quiz.correct-answer-points:1}")
-    private int correctAnswerPoints;
+    // la composition vient du client : plafond de chaque ligne et du total
+    @Value("${quiz.max-questions-per-game:100}")
+    private int maxQuestionsPerGame;
 
-    private final Map<String, ReentrantLock> gameLocks = new ConcurrentHashMap<>();
-    // ❶ Suivi des joueurs déjà passés sur la question courante
-    private final Map<String, Set<String>> answeredPlayers = new ConcurrentHashMap<>();
+    @Value("${quiz.next-question-delay-ms:10000}")
+    private long nextQuestionDelayMs;
 
 
     public QuizGameService(QuestionRepository questionRepository,
-                           QuizGameRepository gameRepository, RoomService roomService, ChatService chatService, SimpMessagingTemplate messagingTemplate,
-                           RoomRepository roomRepository, TaskScheduler gameTaskScheduler)
+                           QuizGameRepository gameRepository, RoomService roomService, SimpMessagingTemplate messagingTemplate,
+                           GameTimerService gameTimers,
+                           GameStateEngine gameEngine, GameStatePersister gameStatePersister,
+                           ScoreJournal scoreJournal, GameEventPublisher eventPublisher,
+                           QuestionCatalogService questionCatalogService, RoomEventPublisher roomEvents)
      {
         this.questionRepository = questionRepository;
         this.gameRepository = gameRepository;
         this.roomService = roomService;
-        this.chatService = chatService;
         this.messagingTemplate = messagingTemplate;
-        this.roomRepository = roomRepository;
-        this.gameTaskScheduler = gameTaskScheduler;
+        this.gameTimers = gameTimers;
+        this.gameEngine = gameEngine;
+        this.gameStatePersister = gameStatePersister;
+        this.scoreJournal = scoreJournal;
+        this.eventPublisher = eventPublisher;
+        this.questionCatalogService = questionCatalogService;
+        this.roomEvents = roomEvents;
     }
 
-    private String generateUniqueName(Collection<String> existing, String base) {
-        String candidate = base;
-        int suffix = 2;
-        while (existing.contains(candidate)) {
-            candidate = base + "(" + suffix + ")";
-            suffix++;
+    /**
+     * Les changements de l'état en mémoire et leur diffusion suivent la transaction :
+     * une écriture annulée (ex : contrainte unique violée) ne doit pas apparaître aux joueurs.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        return candidate;
     }
 
-
     /**
-     * Crée ou redémarre une partie dans une salle
+     * Crée ou redémarre une partie dans une salle.
+     * Les questions sont tirées dans le catalogue en mémoire et rattachées par id,
+     * sans charger la table questions.
      * @param gameId identifiant de la salle
+     * @param composition lignes de composition demandées par l'hôte ; vide ou null pour un tirage uniforme
      * @return l'objet QuizGame créé
      */
     @Transactional
-    public QuizGame createGame(String gameId, Room room) {
+    public QuizGame createGame(String gameId, Room room, List<QuestionSlot> composition) {
 
         QuizGame game = new QuizGame();
 
-
-        List<Question> all = questionRepository.findAll();
-        Collections.shuffle(all);
-        if (all.size() <= 20) {
-             all.forEach(game::addQuestion);
+        validateComposition(composition);
+        List<QuestionCatalog.Slot> slots = composition == null || composition.isEmpty()
+                ? List.of(new QuestionCatalog.Slot(null, null, questionsPerGame))
+                : composition.stream()
+                        .map(s -> new QuestionCatalog.Slot(s.getCategoryId(), s.getDifficulty(), s.getCount()))
+                        .toList();
+        QuestionCatalog catalog = questionCatalogService.current();
+        long[] ids = catalog.compose(slots, ThreadLocalRandom.current());
+        for (long id : ids) {
+            game.addQuestion(questionRepository.getReferenceById(id));
         }
-        else {
-            all.subList(0, 20).forEach(game::addQuestion);
-    }
-
+        // version du catalogue gardée jusqu'à la fin de la partie, même reprise ailleurs
+        gameStatePersister.freezeQuestions(game, catalog);
 
         // Créer un nouveau jeu
             game.setRoom(room);
@@ -120,232 +127,199 @@ public class QuizGameService {
         return gameRepository.saveAndFlush(game);
     }
 
+    private void validateComposition(List<QuestionSlot> composition) {
+        if (composition == null) {
+            return;
+        }
+        long total = 0;
+        for (QuestionSlot slot : composition) {
+            if (slot.getCount() < 0 || slot.getCount() > maxQuestionsPerGame) {
+                throw new IllegalArgumentException("Nombre de questions invalide : " + slot.getCount());
+            }
+            total += slot.getCount();
+        }
+        if (total > maxQuestionsPerGame) {
+            throw new IllegalArgumentException("Une partie compte au plus " + maxQuestionsPerGame + " questions : " + total);
+        }
+    }
+
     /**
-     * Traite la réponse d'un joueur à la question courante
+     * Traite la réponse d'un joueur à la question courante, entièrement en mémoire.
+     * La réponse est déposée dans la boîte aux lettres de la partie et traitée à son tour ;
+     * la progression est écrite en base de manière asynchrone par {@link GameStateEngine},
+     * les changements sont diffusés sous forme d'évènements {@link GameEventDTO}.
      * @param gameId identifiant de la salle
      * @param playerAnswer DTO contenant l'identifiant du joueur et sa réponse
-     * @return le jeu mis à jour
      */
-    @Transactional
-    public QuizGameDTO processAnswerDTO(String gameId, PlayerAnswerDTO playerAnswer) {
-        // Tente d'acquérir le verrou; si déjà en traitement, ignorer la nouvelle réponse.
-        // récupère (ou crée) un lock "fair" pour cette partie
-        ReentrantLock lock = gameLocks
-                .computeIfAbsent(gameId, id -> new ReentrantLock(true)); // true = FIFO fairness
-
-        lock.lock();
-        try {
-
-        Optional<QuizGame> opt = gameRepository.findByGameId(gameId);
-        if (opt.isEmpty()) {
-            return null;
-        }
+    public void processAnswerDTO(String gameId, PlayerAnswerDTO playerAnswer) {
+        gameEngine.find(gameId).ifPresent(state -> state.post(() -> applyAnswer(state, playerAnswer)));
+    }
 
-        QuizGame game = opt.get();
-        if (game.isFinished()) {
-            return toDTO(game);
+    private void applyAnswer(GameState state, PlayerAnswerDTO playerAnswer) {
+        if (state.isFinished()) {
+            return;
         }
 
-        Question current = game.getCurrentQuestion();
+        QuestionDTO current = state.getCurrentQuestion();
         if (current == null) {
-            game.setFinished(true);
-            return toDTO(gameRepository.save(game));
+            state.setFinished(true);
+            gameEngine.markDirty(state);
+            eventPublisher.publish(state, new GameEventDTO.QuestionAdvanced(
+                    state.getCurrentQuestionIndex(), null, true));
+            return;
         }
-            // Récupérer le participant
-            Participant part = game.getParticipants().stream()
-                    .filter(p -> p.getId().toString().equals(playerAnswer.getParticipantId()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Participant introuvable"));
+        // Récupérer le participant
+        String username = state.findUsername(playerAnswer.getParticipantId())
+                .orElseThrow(() -> new IllegalArgumentException("Participant introuvable"));
 
-        String username = part.getUsername();
         int basePoints = switch (current.getDifficulty()) {
-                case "easy" -> 10;
-                case "medium" -> 20;
-                case "hard" -> 30;
-                default -> throw new IllegalArgumentException("Difficulté inconnue: " + current.getDifficulty());
+            case "easy" -> 10;
+            case "medium" -> 20;
+            case "hard" -> 30;
+            default -> throw new IllegalArgumentException("Difficulté inconnue: " + current.getDifficulty());
         };
 
-            boolean isCorrect = playerAnswer.getAnswer().equals(current.getCorrectAnswer());
-            // Liste des joueurs déjà corrects
-            List<String> order = correctAnswerOrder
-                    .computeIfAbsent(gameId, id -> new CopyOnWriteArrayList<>());
-
-
-            if (isCorrect) {
-                if (order.isEmpty()) {
-                    // 1ʳᵉ bonne réponse : plein de points + démarrage du timer
-                    order.add(username);
-                    game.addScore(username, basePoints);
-                    answerWindowStarted.put(gameId, true);
-
-                    // Timer de 10s pour passer à la question suivante
-                    ScheduledFuture<?> f = gameTaskScheduler.schedule(
-                            () -> {
-                                applicationContext.getBean(QuizGameService.class)
-                                        .triggerNextQuestion(gameId);
-                                },
-                            Date.from(Instant.now().plusSeconds(10))
-                    );
-                    scheduledFutures.put(gameId, f);
-
-                } else if (answerWindowStarted.getOrDefault(gameId, false)
-                        && !order.contains(username)) {
-                    // Bonnes réponses suivantes : barème dégressif
-                    order.add(username);
-                    int position = order.size(); // 2=>deuxième, 3=>troisième, etc.
-                    int points = computeDecreasingPoints(basePoints, position);
-                    game.addScore(username, points);
-                }
-                game.setWaitingForNext(true);
-
+        boolean isCorrect = playerAnswer.getAnswer().equals(current.getCorrectAnswer());
+        // Liste des joueurs déjà corrects
+        List<String> order = state.getCorrectAnswerOrder();
+
+        if (isCorrect) {
+            if (order.isEmpty()) {
+                // 1ʳᵉ bonne réponse : plein de points + démarrage du timer
+                order.add(username);
+                addScore(state, username, basePoints);
+                state.setAnswerWindowStarted(true);
+                scheduleNextQuestion(state);
+
+            } else if (state.isAnswerWindowStarted() && !order.contains(username)) {
+                // Bonnes réponses suivantes : barème dégressif
+                order.add(username);
+                int position = order.size(); // 2=>deuxième, 3=>troisième, etc.
+                int points = computeDecreasingPoints(basePoints, position);
+                addScore(state, username, points);
             }
-            // ❸ Enregistrer que ce participant a répondu
-            Set<String> answered = answeredPlayers
-                    .computeIfAbsent(gameId, k -> ConcurrentHashMap.newKeySet());
-            answered.add(playerAnswer.getParticipantId());
-
-
-            // Sauvegarde et broadcast immédiat des scores mis à jour
-            QuizGame saved = gameRepository.save(game);
-            messagingTemplate.convertAndSend("/game/" + gameId, toDTO(saved));
-
-            if (saved.getParticipants().stream()
-                    .map(p -> p.getId().toString())
-                    .allMatch(answered::contains)
-            ) {
-                // annulation du timer programmé
-
-                if (!scheduledFutures.containsKey(gameId)) {
-                    game.setWaitingForNext(true);
-
-                    // Timer de 10s pour passer à la question suivante
-                    ScheduledFuture<?> f = gameTaskScheduler.schedule(
-                            () -> {
-                                applicationContext.getBean(QuizGameService.class)
-                                        .triggerNextQuestion(gameId);
-                                // on vide le suivi des réponses
-                                game.setWaitingForNext(false);
-
-                            },
-                            Date.from(Instant.now().plusSeconds(10))
-                    );
-                    scheduledFutures.put(gameId, f);
-                }
+            state.setWaitingForNext(true);
+        }
+        // ❸ Enregistrer que ce participant a répondu
+        Long participantId = Long.valueOf(playerAnswer.getParticipantId());
+        state.recordAnswer(participantId);
 
-            }
+        if (state.allParticipantsAnswered() && !state.hasNextQuestionTimer()) {
+            state.setWaitingForNext(true);
+            scheduleNextQuestion(state);
+        }
 
-            return toDTO(saved);
+        gameEngine.markDirty(state);
+        eventPublisher.publish(state, new GameEventDTO.PlayerAnswered(
+                participantId, username, state.isWaitingForNext()));
+    }
 
-        } finally {
-            lock.unlock();
-            //  cleanup si la partie est finie
-            if (gameRepository.findByGameId(gameId).map(QuizGame::isFinished).orElse(false)) {
-                gameLocks.remove(gameId);
-            }
-        }
+    /**
+     * Applique les points en mémoire, les confie au journal d'écriture différée
+     * et diffuse le nouveau score.
+     */
+    private void addScore(GameState state, String username, int points) {
+        int total = state.addScore(username, points);
+        scoreJournal.append(state.getGameDbId(), username, points, total);
+        eventPublisher.publish(state, new GameEventDTO.ScoreChanged(username, total, points));
+    }
 
+    /**
+     * Timer de 10s pour passer à la question suivante. Appelé depuis la boîte aux lettres de la partie ;
+     * un timer déjà programmé est annulé.
+     */
+    private void scheduleNextQuestion(GameState state) {
+        String gameId = state.getGameId();
+        state.cancelNextQuestionTimer();
+        state.setNextQuestionTimer(gameTimers.schedule(Duration.ofMillis(nextQuestionDelayMs),
+                timer -> triggerNextQuestion(gameId, timer)));
     }
 
     /**
-     * Déclenché au bout de 30s après la 1ʳᵉ bonne réponse :
+     * Déclenché au bout de 10s après la 1ʳᵉ bonne réponse :
      * passe à la question suivante et broadcast.
      */
-    @Transactional
     public void triggerNextQuestion(String gameId) {
-        answeredPlayers.remove(gameId);
-        correctAnswerOrder.remove(gameId);
-        answerWindowStarted.remove(gameId);
-        scheduledFutures.remove(gameId);
+        triggerNextQuestion(gameId, null);
+    }
 
-        Optional<QuizGame> opt = gameRepository.findWithAllByGameId(gameId);
-        if (opt.isEmpty()) return;
+    /**
+     * @param timer minuterie à l'origine de l'appel ; ignorée si elle a été remplacée ou annulée entre-temps
+     */
+    private void triggerNextQuestion(String gameId, GameTimerService.Timeout timer) {
+        gameEngine.find(gameId).ifPresent(state -> state.post(() -> advance(state, timer)));
+    }
 
-        QuizGame game = opt.get();
-        if (!game.isFinished()) {
+    private void advance(GameState state, GameTimerService.Timeout timer) {
+        if (timer != null && !state.isNextQuestionTimer(timer)) {
+            return;
+        }
+        state.cancelNextQuestionTimer();
+        if (!state.isFinished()) {
             // Réinitialiser l'état de la fenêtre
-            game.setWaitingForNext(false);
-
-            game.nextQuestion();
-
-            QuizGame saved = gameRepository.save(game);
-            messagingTemplate.convertAndSend("/game/" + gameId, toDTO(saved));
-
+            state.setWaitingForNext(false);
+            state.nextQuestion();
+            gameEngine.markDirty(state);
+            eventPublisher.publish(state, new GameEventDTO.QuestionAdvanced(
+                    state.getCurrentQuestionIndex(), state.getCurrentQuestion(), state.isFinished()));
         }
     }
 
-    private void resetWindow(String gameId) {
-        answerWindowStarted.remove(gameId);
-        correctAnswerOrder.remove(gameId);
-        ScheduledFuture<?> f = scheduledFutures.remove(gameId);
-        if (f != null) f.cancel(false);
-    }
-
     /**
-     * barème dégressif :
-     * on retire 20% de la valeur de base par position-1
+     * Reprise des parties de ce nœud ({@code owned}) après un redémarrage ou le départ d'un autre nœud :
+     * relance le timer des parties qui attendaient la question suivante.
+     * @return le nombre de parties reprises
      */
-    private int computeDecreasingPoints(int base, int position) {
-        int decrement = base * 20 / 100;
-        return Math.max(base/10, base - (position - 1) * decrement);
+    public int recoverGames(Predicate<String> owned) {
+        List<GameState> recovered = gameEngine.recover(owned);
+        for (GameState state : recovered) {
+            state.post(() -> {
+                if (state.isWaitingForNext()) {
+                    scheduleNextQuestion(state);
+                }
+            });
+        }
+        return recovered.size();
     }
 
-
-
     /**
-     * Transforme un objet QuizGame en DTO pour l'envoi au frontend
-     * @param game le jeu à convertir
-     * @return DTO prêt à être envoyé
+     * Rend les parties en mémoire que {@code released} attribue désormais à un autre nœud.
+     * Leur progression et leurs scores sont écrits avant le retour.
+     * @return gameId -> numéro du dernier évènement publié, à transmettre au nouveau propriétaire
      */
-
-    public QuizGameDTO toDTO(QuizGame game) {
-        if (game == null) {
-            return null;
+    public Map<String, Long> releaseGames(Predicate<String> released) {
+        Map<String, Long> seqs = new LinkedHashMap<>();
+        for (String gameId : gameEngine.loadedGameIds()) {
+            if (released.test(gameId)) {
+                gameEngine.release(gameId).ifPresent(seq -> seqs.put(gameId, seq));
+            }
         }
-        QuizGameDTO dto = new QuizGameDTO();
-
-        List<ScoreDTO> scoreDTOs = game.getScores()
-                .entrySet()
-                .stream()
-                .map(e -> new ScoreDTO(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
-        dto.setScores(scoreDTOs);
-
-        dto.setRoomId(game.getRoom().getRoomId());
-        dto.setCurrentQuestion(QuestionDTO.fromEntity(game.getCurrentQuestion()));
-        dto.setQuestions(game.getQuestions().stream().filter(Objects::nonNull)
-                .map(QuestionDTO::fromEntity).toList());
-        dto.setScores(scoreDTOs);
-        dto.setFinished(game.isFinished());
-        dto.setGameId(game.getGameId());
-
-        // Convert Participant entities to ParticipantDTO objects
-        List<ParticipantDTO> participantDTOs = game.getParticipants().stream()
-                .map(participant -> new ParticipantDTO(participant.getId(), participant.getUsername(), participant.getDelaiReponse(), null))
-                .toList();
-        dto.setParticipants(participantDTOs);
-
-        dto.setCurrentQuestionIndex(game.getCurrentQuestionIndex());
-        dto.setWaitingForNext(game.isWaitingForNext());
-        return dto;
-    }
-
-    // Helper method to find a participant by username
-    private Participant findParticipantByUsername(List<Participant> participants, String username) {
-        return participants.stream()
-                .filter(p -> p.getUsername().equals(username))
-                .findFirst()
-                .orElse(null);
+        if (!seqs.isEmpty()) {
+            scoreJournal.flush();
+        }
+        return seqs;
     }
 
-    // Helper method to check if a participant with the given username exists
-    private boolean hasParticipantWithUsername(List<Participant> participants, String username) {
-        return participants.stream()
-                .anyMatch(p -> p.getUsername().equals(username));
+    /**
+     * Prend en charge une partie rendue par un autre nœud : rechargée depuis la base,
+     * la numérotation des évènements continue là où l'ancien propriétaire l'a laissée.
+     */
+    public void takeOverGame(String gameId, long seq) {
+        gameEngine.reload(gameId).ifPresent(state -> state.post(() -> {
+            state.setSeq(Math.max(state.getSeq(), seq));
+            if (state.isWaitingForNext()) {
+                scheduleNextQuestion(state);
+            }
+        }));
     }
 
-    // Helper method to remove a participant by username
-    private boolean removeParticipantByUsername(List<Participant> participants, String username) {
-        return participants.removeIf(p -> p.getUsername().equals(username));
+    /**
+     * barème dégressif :
+     * on retire 20% de la valeur de base par position-1
+     */
+    private int computeDecreasingPoints(int base, int position) {
+        int decrement = base * 20 / 100;
+        return Math.max(base/10, base - (position - 1) * decrement);
     }
 
 
@@ -366,13 +340,17 @@ public class QuizGameService {
                 .findByGameId((gameId)).orElseThrow(() ->
                         new NoSuchElementException("Partie introuvable : " + gameId)
                 );
-        game.addParticipant(
-                game.getRoom().getParticipants().stream()
-                        .filter(p -> p.getId().equals(participantId))
-                        .findAny()
-                        .orElseThrow(() -> new NoSuchElementException("Participant introuvable : " + participantId))
-        );
-        return gameRepository.save(game);
+        Participant added = game.getRoom().getParticipants().stream()
+                .filter(p -> p.getId().equals(participantId))
+                .findAny()
+                .orElseThrow(() -> new NoSuchElementException("Participant introuvable : " + participantId));
+        game.addParticipant(added);
+        QuizGame saved = gameRepository.save(game);
+        afterCommit(() -> gameEngine.findLoaded(gameId).ifPresent(state -> state.post(() -> {
+            state.addParticipant(added.getId(), added.getUsername());
+            eventPublisher.publish(state, new GameEventDTO.ParticipantJoined(added.getId(), added.getUsername()));
+        })));
+        return saved;
     }
 
     @Transactional
@@ -383,7 +361,14 @@ public class QuizGameService {
                         new NoSuchElementException("Partie introuvable : " + gameId)
                 );
         game.getParticipants().removeIf(p -> p.getId().equals(participantId));
-            return gameRepository.save(game);
+        QuizGame saved = gameRepository.save(game);
+        afterCommit(() -> gameEngine.findLoaded(gameId).ifPresent(state -> state.post(() -> {
+            String username = state.removeParticipant(participantId);
+            if (username != null) {
+                eventPublisher.publish(state, new GameEventDTO.ParticipantLeft(participantId, username));
+            }
+        })));
+        return saved;
 
     }
 
@@ -392,7 +377,7 @@ public class QuizGameService {
     public QuizGameDTO startQuizGameDTO(String gameId, StartGameRequest payload) {
         Room room = roomService.getRoom(payload.getRoomId())
                 .orElseThrow(() -> new IllegalArgumentException("Room not found: " + payload.getRoomId()));
-        QuizGame game = createGame(gameId, room);
+        QuizGame game = createGame(gameId, room, payload.getComposition());
 
         List<Participant> snapshot = new ArrayList<>(room.getParticipants());
         for (Participant participant : snapshot) {
@@ -403,48 +388,72 @@ public class QuizGameService {
         room.setActiveGame(true);
         roomService.saveRoom(room);
 
-        return toDTO(game);
+        GameState state = gameStatePersister.fromEntity(game);
+        GameEventDTO.Snapshot initial = state.call(() -> eventPublisher.snapshot(state)).join();
+        afterCommit(() -> {
+            // déposé avant l'enregistrement : le snapshot précède tout évènement de la partie
+            state.post(() -> eventPublisher.broadcastSnapshot(initial));
+            gameEngine.register(state);
+            roomEvents.gameStatus(room.getRoomId(), gameId, true);
+        });
+        return initial.getGame();
     }
 
 
     @Transactional
-    public Optional<QuizGameDTO> removeParticipantFromGame(String gameId, Long participantId) {
+    public void removeParticipantFromGame(String gameId, Long participantId) {
         QuizGame updated = removeParticipant(gameId, participantId);
         if (updated.getParticipants().isEmpty()) {
             gameRepository.deleteByGameId(gameId);
             updated.getRoom().setActiveGame(false);
             roomService.saveRoom(updated.getRoom());
+            String roomId = updated.getRoom().getRoomId();
+            afterCommit(() -> {
+                gameEngine.evict(gameId);
+                roomEvents.gameStatus(roomId, gameId, false);
+            });
         }
-        else {
-            return Optional.ofNullable(toDTO(updated));
-        }
-        return Optional.empty();
     }
     @Transactional
-    public QuizGameDTO enterQuizGame(String gameId, Long participantId) {
+    public void enterQuizGame(String gameId, Long participantId) {
         QuizGame game = gameRepository.findByGameId(gameId)
                 .orElseThrow(() -> new IllegalArgumentException("Jeu introuvable : " + gameId));
 
-
         if (game.getParticipants().stream().noneMatch(p -> p.getId().equals(participantId))) {
-            QuizGame updated = addParticipant(gameId, participantId);
-            return toDTO(updated);
+            addParticipant(gameId, participantId);
         }
+    }
 
-        return null;
+    /**
+     * État complet de la partie avec le numéro de séquence courant,
+     * envoyé à l'abonnement ou sur demande de resynchronisation.
+     */
+    public Optional<GameEventDTO.Snapshot> getSnapshot(String gameId) {
+        return gameEngine.find(gameId).map(state -> state.call(() -> eventPublisher.snapshot(state)).join());
+    }
+
+    /**
+     * Progression de la partie et score du joueur, pour le rattrapage d'une session reprise.
+     * Lu dans l'état en mémoire, sans charger la partie si elle ne l'est pas déjà.
+     */
+    public Optional<GameProgressDTO> getProgress(String gameId, String username) {
+        return gameEngine.findLoaded(gameId).map(state -> state.call(() -> new GameProgressDTO(gameId,
+                state.getSeq(), state.getCurrentQuestionIndex(), state.isWaitingForNext(), state.isFinished(),
+                state.getScores().getOrDefault(username, 0))).join());
     }
 
-    @Transactional
     public QuizGameDTO getQuizGameDTO(String gameId) {
-            return toDTO(getGame(gameId).orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId)));
+        GameState state = gameEngine.find(gameId)
+                .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+        return state.call(state::toDTO).join();
     }
 
     /**
-     * Process a joker used by a player
+     * Process a joker used by a player.
+     * Passes through the game's mailbox so the joker is ordered with the answers.
      * @param gameId the game ID
      * @param jokerRequest the joker request containing the joker type and participant ID
      */
-    @Transactional
     public void processJoker(String gameId, PlayerJokerRequest jokerRequest) {
         if(jokerRequest.getJokerType() == PlayerJokerRequest.JokerType.PRIORITE_REPONSE) {
 
@@ -457,7 +466,8 @@ public class QuizGameService {
 
             // Send the Joker object to all subscribers of /game/{gameId}/joker/
             String destination = "/game/joker/"+gameId;
-            messagingTemplate.convertAndSend(destination, joker);
+            Runnable send = () -> messagingTemplate.convertAndSend(destination, joker);
+            gameEngine.findLoaded(gameId).ifPresentOrElse(state -> state.post(send), send);
         }
     }
 }
@@ -0,0 +1,52 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publie les évènements d'une room sur /chatroom/{roomId}.
+ * Chaque évènement périme le snapshot de la room en cache ({@link SnapshotCache}),
+ * ici et, en mode relais, sur les autres nœuds ({@link RoomSync}).
+ */
+@Component
+public class RoomEventPublisher {
+
+    private final StompBroadcaster broadcaster;
+    private final SnapshotCache snapshots;
+    private final RoomSync roomSync;
+
+    public RoomEventPublisher(StompBroadcaster broadcaster, SnapshotCache snapshots, RoomSync roomSync) {
+        this.broadcaster = broadcaster;
+        this.snapshots = snapshots;
+        this.roomSync = roomSync;
+    }
+
+    public void publish(String roomId, RoomEventDTO event) {
+        event.setRoomId(roomId);
+        snapshots.invalidate(SnapshotCache.Kind.ROOM, roomId);
+        broadcaster.broadcast("/chatroom/" + roomId, event);
+        roomSync.published(roomId, event);
+    }
+
+    public void chat(MessageDTO message) {
+        publish(message.getRoomId(), new RoomEventDTO.Chat(
+                message.getId(), message.getSender(), message.getContent(), message.getCreatedAt()));
+    }
+
+    public void rosterDelta(String roomId, List<ParticipantDTO> joined, List<ParticipantDTO> left) {
+        publish(roomId, new RoomEventDTO.RosterDelta(joined, left));
+    }
+
+    public void roomDeleted(String roomId) {
+        snapshots.evict(SnapshotCache.Kind.ROOM, roomId);
+        roomSync.deleted(roomId);
+    }
+
+    public void gameStatus(String roomId, String gameId, boolean activeGame) {
+        publish(roomId, new RoomEventDTO.GameStatus(gameId, activeGame));
+    }
+}
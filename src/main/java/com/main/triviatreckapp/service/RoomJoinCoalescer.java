@@ -0,0 +1,114 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.RoomDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Regroupe les arrivées dans une room.
+ * La première arrivée ouvre une fenêtre de quiz.rooms.join.window-ms ; toutes celles qui tombent
+ * dedans sont traitées par un seul {@link RoomService#addUsersToRoom} : un verrou, une transaction,
+ * un message SYSTEM (« 12 joueurs ont rejoint la room ») et un seul évènement de liste.
+ * Une fenêtre à 0 traite chaque arrivée seule.
+ */
+@Slf4j
+@Service
+public class RoomJoinCoalescer {
+
+    private final RoomService roomService;
+    private final TaskScheduler taskScheduler;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ExecutorService flushers = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary batchSizes;
+
+    public RoomJoinCoalescer(RoomService roomService, @Qualifier("taskScheduler") TaskScheduler taskScheduler,
+                             @Value("${quiz.rooms.join.window-ms:50}") long windowMs,
+                             @Value("${quiz.rooms.join.max-batch-size:200}") int maxBatchSize,
+                             MeterRegistry meterRegistry) {
+        this.roomService = roomService;
+        this.taskScheduler = taskScheduler;
+        this.window = Duration.ofMillis(windowMs);
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("quiz.rooms.join.batch.size")
+                .description("Arrivées traitées par transaction")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushers.shutdown();
+    }
+
+    /**
+     * Ajoute un participant dont le pseudo est déjà réservé.
+     * @return l'état de la room après le lot qui contient cette arrivée
+     */
+    public CompletableFuture<RoomDTO> join(String roomId, String username, String tempId) {
+        Pending pending = new Pending(new RoomService.Joiner(username, tempId), new CompletableFuture<>());
+        if (window.isZero()) {
+            flushers.execute(() -> flush(roomId, List.of(pending)));
+            return pending.result();
+        }
+        // taille lue dans compute : c'est elle qui dit qui ouvre la fenêtre et qui remplit le lot
+        int[] size = new int[1];
+        Batch batch = batches.compute(roomId, (id, current) -> {
+            Batch target = current != null ? current : new Batch();
+            target.joins.add(pending);
+            size[0] = target.joins.size();
+            return target;
+        });
+        if (size[0] >= maxBatchSize) {
+            close(roomId, batch);
+        } else if (size[0] == 1) {
+            taskScheduler.schedule(() -> close(roomId, batch), Instant.now().plus(window));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Ferme le lot (les arrivées suivantes en ouvrent un autre) et le traite sur un thread virtuel.
+     * Appelé à l'échéance de la fenêtre, ou plus tôt si le lot est plein : le second appel ne fait rien.
+     */
+    private void close(String roomId, Batch batch) {
+        if (batches.remove(roomId, batch)) {
+            flushers.execute(() -> flush(roomId, batch.joins));
+        }
+    }
+
+    private void flush(String roomId, List<Pending> joins) {
+        batchSizes.record(joins.size());
+        try {
+            RoomDTO room = roomService.addUsersToRoom(roomId, joins.stream().map(Pending::joiner).toList());
+            joins.forEach(p -> p.result().complete(room));
+        } catch (Exception e) {
+            log.error("Échec de l'arrivée de {} participant(s) dans la room {}", joins.size(), roomId, e);
+            joins.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+
+    // modifié seulement dans batches.compute, lu après batches.remove : pas d'accès concurrent
+    private static final class Batch {
+        private final List<Pending> joins = new ArrayList<>();
+    }
+
+    private record Pending(RoomService.Joiner joiner, CompletableFuture<RoomDTO> result) {
+    }
+}
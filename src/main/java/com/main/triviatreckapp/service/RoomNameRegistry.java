@@ -0,0 +1,86 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.repository.RoomRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pseudos pris dans chaque room, pour attribuer un nom unique en O(1).
+ * Par room : l'ensemble des noms pris et, par nom de base, le prochain suffixe à essayer :
+ * le 300e « Player » reçoit « Player(300) » sans repasser sur les 299 premiers.
+ * La réservation est atomique ; la contrainte unique (room_id, username) de participants
+ * reste le garde-fou en base.
+ */
+@Component
+public class RoomNameRegistry {
+
+    private final RoomRepository roomRepo;
+    private final Map<String, Names> rooms = new ConcurrentHashMap<>();
+
+    public RoomNameRegistry(RoomRepository roomRepo) {
+        this.roomRepo = roomRepo;
+    }
+
+    /**
+     * Réserve {@code desired} dans la room, ou à défaut le premier {@code desired(n)} libre.
+     * Au premier accès, les noms déjà présents sont chargés depuis la base.
+     */
+    public String reserve(String roomId, String desired) {
+        return names(roomId).reserve(desired);
+    }
+
+    /**
+     * Pseudo pris par un autre nœud (mode relais) ; sans effet si la room n'est pas encore chargée ici.
+     */
+    public void markTaken(String roomId, String username) {
+        Names names = rooms.get(roomId);
+        if (names != null) {
+            names.taken.add(username);
+        }
+    }
+
+    public void release(String roomId, String username) {
+        Names names = rooms.get(roomId);
+        if (names != null) {
+            names.taken.remove(username);
+        }
+    }
+
+    public void evict(String roomId) {
+        rooms.remove(roomId);
+    }
+
+    private Names names(String roomId) {
+        Names names = rooms.get(roomId);
+        if (names == null) {
+            Names loaded = new Names();
+            roomRepo.findRoster(roomId).forEach(p -> loaded.taken.add(p.getUsername()));
+            names = Objects.requireNonNullElse(rooms.putIfAbsent(roomId, loaded), loaded);
+        }
+        return names;
+    }
+
+    private static final class Names {
+        private final Set<String> taken = ConcurrentHashMap.newKeySet();
+        private final Map<String, AtomicInteger> nextSuffix = new ConcurrentHashMap<>();
+
+        String reserve(String base) {
+            if (taken.add(base)) {
+                return base;
+            }
+            // suffixes jamais rendus : un (n) libéré n'est pas réattribué, le compteur ne fait qu'avancer
+            AtomicInteger next = nextSuffix.computeIfAbsent(base, b -> new AtomicInteger(2));
+            while (true) {
+                String candidate = base + "(" + next.getAndIncrement() + ")";
+                if (taken.add(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+    }
+}
@@ -10,6 +10,8 @@ import com.main.triviatreckapp.repository.ParticipantRepository;
 import com.main.triviatreckapp.repository.RoomRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.*;
 
 @Service
@@ -17,23 +19,46 @@ public class RoomService {
     private final RoomRepository roomRepo;
     private final ChatService chatService;
     private final ParticipantRepository participantRepo;
+    private final ChatHistory chatHistory;
+    private final RoomEventPublisher roomEvents;
+    private final RoomNameRegistry roomNames;
 
-    public RoomService(RoomRepository roomRepo, ChatService chatService, ParticipantRepository participantRepo) { this.roomRepo = roomRepo;
+    public RoomService(RoomRepository roomRepo, ChatService chatService, ParticipantRepository participantRepo,
+                       ChatHistory chatHistory, RoomEventPublisher roomEvents, RoomNameRegistry roomNames) { this.roomRepo = roomRepo;
         this.chatService = chatService;
         this.participantRepo = participantRepo;
+        this.chatHistory = chatHistory;
+        this.roomEvents = roomEvents;
+        this.roomNames = roomNames;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     /**
-     * Génère un nom unique en ajoutant (2), (3)... tant que nécessaire.
+     * Libère le pseudo si la transaction en cours échoue (ex : contrainte unique violée par un autre nœud).
      */
-    private String generateUniqueName(Collection<String> existing, String base) {
-        String candidate = base;
-        int suffix = 2;
-        while (existing.contains(candidate)) {
-            candidate = base + "(" + suffix + ")";
-            suffix++;
+    private void releaseNameOnRollback(String roomId, String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        roomNames.release(roomId, username);
+                    }
+                }
+            });
         }
-        return candidate;
     }
 
 
@@ -51,6 +76,12 @@ public class RoomService {
     @Transactional
     public void deleteRoom(String roomId) {
         roomRepo.deleteByRoomId(roomId);
+        // une suppression annulée garde sa fenêtre de chat et ses pseudos
+        afterCommit(() -> {
+            chatHistory.evict(roomId);
+            roomNames.evict(roomId);
+            roomEvents.roomDeleted(roomId);
+        });
     }
 
     @Transactional
@@ -65,6 +96,7 @@ public class RoomService {
                 .orElseThrow(() -> new IllegalArgumentException("Room introuvable"));
         room.getParticipants().removeIf(p -> p.getUsername().equals(username));
         roomRepo.save(room);
+        roomNames.release(roomId, username);
     }
 
 
@@ -78,13 +110,17 @@ public class RoomService {
         return roomRepo.save(room);
     }
 
-    public RoomDTO convertRoomToDTO(Room room) {
+    private List<ParticipantDTO> toParticipantDTOs(Room room) {
         List<ParticipantDTO> participantsDTO = new ArrayList<>();
         room.getParticipants().forEach(participant -> participantsDTO.add(new ParticipantDTO(participant.getId(), participant.getUsername(), participant.getDelaiReponse(), null)));
+        return participantsDTO;
+    }
 
-        List<MessageDTO> msgs = room.getMessages().stream()
-                .map(m -> new MessageDTO(m.getRoomId(), m.getSender(), m.getContent()))
-                .toList();
+    public RoomDTO convertRoomToDTO(Room room) {
+        List<ParticipantDTO> participantsDTO = toParticipantDTOs(room);
+
+        // seulement la fenêtre récente ; l'historique se lit par GET /rooms/{roomId}/messages
+        List<MessageDTO> msgs = chatHistory.recent(room.getRoomId());
         String gameId = room.getQuizGame() != null
                 ? room.getQuizGame().getGameId()
                 : UUID.randomUUID().toString();
@@ -98,71 +134,97 @@ public class RoomService {
 
 
     /**
-     * Renvoie un pseudo unique dans la room (suffixe (2),(3)…)
-     * même si la room n'existe pas encore.
+     * Réserve un pseudo unique dans la room (suffixe (2),(3)…)
+     * même si la room n'existe pas encore. Deux arrivées simultanées ne peuvent
+     * pas recevoir le même nom ; il est rendu au départ du participant.
      */
-    @Transactional(readOnly = true)
-    public String getUniqueUserName(String roomId, String desiredUser) {
-        // récupère la room si elle existe
-        Room room = roomRepo.findByRoomId(roomId).orElse(null);
-        Collection<String> participants = (room != null)
-                ? room.getParticipants().stream().map(Participant::getUsername).toList()
-                : List.of();
-        return generateUniqueName(participants, desiredUser);
+    public String reserveUserName(String roomId, String desiredUser) {
+        return roomNames.reserve(roomId, desiredUser);
     }
 
 
+    /** Une arrivée dans une room : pseudo déjà réservé et identifiant temporaire du client. */
+    public record Joiner(String username, String tempId) {
+    }
+
     @Transactional
     public RoomDTO addUserToRoom(String roomId, String username, String tempUuid) {
+        return addUsersToRoom(roomId, List.of(new Joiner(username, tempUuid)));
+    }
+
+    /**
+     * Fait entrer plusieurs participants en une transaction : un seul verrou sur la room,
+     * un seul message SYSTEM et un seul évènement {@link com.main.triviatreckapp.dto.RoomEventDTO.RosterDelta}
+     * (voir {@link RoomJoinCoalescer}).
+     * @return l'état de la room, les arrivants portant leur tempId
+     */
+    @Transactional
+    public RoomDTO addUsersToRoom(String roomId, List<Joiner> joiners) {
         Room room = roomRepo.findByRoomIdForUpdate(roomId)
                 .orElseGet(() -> createRoom(roomId));
 
-        // création ou récupération du Participant
-        Participant p = participantRepo.findByUsername(username)
-                .orElseGet(() -> participantRepo.save(new Participant(username, 0)));
-
-        if (room.getParticipants().stream().noneMatch(x -> x.getUsername().equals(username))) {
-            Message sysMsg = chatService.saveMessage(roomId, "SYSTEM", username + " a rejoint la room");
-            room.getMessages().add(sysMsg);
+        // pseudos réservés par reserveUserName : aucun n'est déjà dans la room
+        Map<String, String> tempIds = new LinkedHashMap<>();
+        joiners.forEach(j -> {
+            tempIds.put(j.username(), j.tempId());
+            releaseNameOnRollback(roomId, j.username());
+        });
+        // une ligne n'est reprise que si son joueur a quitté la room ; un pseudo encore assis
+        // (registre désynchronisé) donne une nouvelle ligne, refusée par uk_participants_room_username
+        Set<String> seated = new HashSet<>();
+        room.getParticipants().forEach(p -> seated.add(p.getUsername()));
+        Map<String, Participant> existing = new HashMap<>();
+        participantRepo.findByRoomIdAndUsernameIn(roomId, tempIds.keySet()).stream()
+                .filter(p -> !seated.contains(p.getUsername()))
+                .forEach(p -> existing.put(p.getUsername(), p));
+
+        List<ParticipantDTO> joined = new ArrayList<>(joiners.size());
+        tempIds.forEach((username, tempId) -> {
+            Participant p = existing.computeIfAbsent(username,
+                    u -> participantRepo.save(new Participant(roomId, u, 0)));
             room.addParticipant(p);
-            roomRepo.save(room);
-        }
-        RoomDTO roomDTO = convertRoomToDTO(room);
-
-        // On reconstruit la liste en injectant le tempId là où il faut
-        List<ParticipantDTO> updated = roomDTO.getParticipants().stream()
-                .peek(part -> {
-                    if (part.getUsername().equals(username)) {
-                        part.setTempId(tempUuid);
-                    }
-                })
-                .toList();
+            joined.add(new ParticipantDTO(p.getId(), p.getUsername(), p.getDelaiReponse(), tempId));
+        });
+        chatService.saveMessage(roomId, "SYSTEM", joined.size() == 1
+                ? joined.getFirst().getUsername() + " a rejoint la room"
+                : joined.size() + " joueurs ont rejoint la room");
+        roomRepo.save(room);
 
-        // On remplace l’ancienne liste par la nouvelle
-        roomDTO.setParticipants(updated);
+        RoomDTO roomDTO = convertRoomToDTO(room);
+        // On injecte le tempId de chaque arrivant
+        roomDTO.getParticipants().forEach(part -> part.setTempId(tempIds.get(part.getUsername())));
+        // les autres reçoivent seulement les arrivants, les nouveaux venus tout l'état
+        afterCommit(() -> roomEvents.rosterDelta(roomId, joined, List.of()));
 
         return roomDTO;
-
     }
 
 
 
-    @Transactional
-    public RoomDTO submitMessageToRoom(String roomId, Message chatMessage) {
-        Optional<Room> room = getRoom(roomId);
-
-        if (room.isPresent()) {
-            Message savedMessage = chatService.saveMessage(
-                    roomId, chatMessage.getSender(), chatMessage.getContent());
-            room.get().getMessages().add(savedMessage);
-            return convertRoomToDTO(saveRoom(room.get()));
-        } else {
+    /**
+     * Enregistre un message ; seule la ligne du message est écrite,
+     * la diffusion est faite par {@link ChatService}.
+     */
+    public void submitMessageToRoom(String roomId, Message chatMessage) {
+        if (!roomRepo.existsByRoomId(roomId)) {
             throw new RuntimeException("room not found !!");
         }
+        chatService.saveMessage(roomId, chatMessage.getSender(), chatMessage.getContent());
     }
 
     @Transactional
     public Optional<RoomDTO> removeParticipantAndCheckRoomStatus(String roomId, String username) {
+        return removeParticipantsFromRoom(roomId, List.of(username));
+    }
+
+    /**
+     * Fait sortir plusieurs participants en une transaction : un seul verrou, un seul message SYSTEM
+     * et un seul évènement {@link com.main.triviatreckapp.dto.RoomEventDTO.RosterDelta}
+     * (voir {@link DisconnectProcessor}). La room est supprimée si elle se vide.
+     * @return l'état de la room, vide si elle n'existe pas ou plus
+     */
+    @Transactional
+    public Optional<RoomDTO> removeParticipantsFromRoom(String roomId, Collection<String> usernames) {
         // Utilisation d’un verrou pessimiste pour éviter les accès concurrents
         Optional<Room> optionalRoom = roomRepo.findByRoomIdForUpdate(roomId);
         if (optionalRoom.isEmpty()) {
@@ -171,14 +233,20 @@ public class RoomService {
         }
         Room room = optionalRoom.get();
 
-        if (room.getParticipants().stream().anyMatch(p -> p.getUsername().equals(username))) {
-            Participant participant = room.getParticipants().stream().filter(p -> p.getUsername().equals(username)).findAny().orElseThrow();
-            room.removeParticipant(participant);
-            Message sysMsg = chatService.saveMessage(
-                    roomId,
-                    "SYSTEM",
-                    participant.getUsername() + " a quitté la room");
-            room.getMessages().add(sysMsg);
+        Set<String> names = new HashSet<>(usernames);
+        List<Participant> leaving = room.getParticipants().stream()
+                .filter(p -> names.contains(p.getUsername()))
+                .toList();
+        room.getParticipants().removeAll(leaving);
+        List<ParticipantDTO> left = leaving.stream()
+                .map(p -> new ParticipantDTO(p.getId(), p.getUsername()))
+                .toList();
+        if (!left.isEmpty()) {
+            // libérés au commit seulement : une sortie annulée garde ses pseudos
+            afterCommit(() -> left.forEach(p -> roomNames.release(roomId, p.getUsername())));
+            chatService.saveMessage(roomId, "SYSTEM", left.size() == 1
+                    ? left.getFirst().getUsername() + " a quitté la room"
+                    : left.size() + " joueurs ont quitté la room");
         }
 
         if (room.getParticipants().isEmpty()) {
@@ -186,13 +254,61 @@ public class RoomService {
             return Optional.empty();
         } else {
             roomRepo.save(room);
+            if (!left.isEmpty()) {
+                afterCommit(() -> roomEvents.rosterDelta(roomId, List.of(), left));
+            }
             return Optional.ofNullable(convertRoomToDTO(room));
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getMessages(String roomId, Long before, int limit) {
+        if (!roomRepo.existsByRoomId(roomId)) {
+            throw new IllegalArgumentException("Room not found: " + roomId);
+        }
+        return chatHistory.page(roomId, before, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean roomExists(String roomId) {
+        return roomRepo.existsByRoomId(roomId);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isParticipant(String roomId, String username) {
+        return roomRepo.existsByRoomIdAndParticipantsUsername(roomId, username);
+    }
+
+    /**
+     * RoomDTO lu par projections (en-tête puis participants) sans charger l'entité Room,
+     * les messages viennent de {@link ChatHistory}.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RoomDTO> findRoomDTO(String roomId) {
+        return findRoomDTO(roomId, null);
+    }
+
+    /**
+     * Comme {@link #findRoomDTO(String)}, sans les messages déjà reçus par le client
+     * (identifiant inférieur ou égal à {@code afterMessageId}).
+     */
+    @Transactional(readOnly = true)
+    public Optional<RoomDTO> findRoomDTO(String roomId, Long afterMessageId) {
+        return roomRepo.findHeader(roomId).map(dto -> {
+            dto.setParticipants(roomRepo.findRoster(roomId));
+            List<MessageDTO> recent = chatHistory.recent(roomId);
+            dto.setMessages(afterMessageId == null ? recent
+                    : recent.stream().filter(m -> m.getId() > afterMessageId).toList());
+            if (dto.getGameId() == null) {
+                dto.setGameId(UUID.randomUUID().toString());
+            }
+            return dto;
+        });
+    }
+
+    @Transactional(readOnly = true)
     public RoomDTO getRoomDTO(String roomId) {
-        return getRoom(roomId).map(this::convertRoomToDTO).orElseThrow(() -> new IllegalArgumentException("Room not found: " + roomId));
+        return findRoomDTO(roomId).orElseThrow(() -> new IllegalArgumentException("Room not found: " + roomId));
     }
 
 }
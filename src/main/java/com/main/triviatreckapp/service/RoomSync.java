@@ -0,0 +1,112 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.triviatreckapp.config.BrokerRelay;
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * En mode relais, garde d'accord les états de room tenus en mémoire par chaque nœud :
+ * fenêtre du chat ({@link ChatHistory}), snapshot en cache ({@link SnapshotCache})
+ * et pseudos pris ({@link RoomNameRegistry}).
+ * <p>
+ * Chaque évènement de room publié par ce nœud est aussi envoyé sur {@link #DESTINATION} ;
+ * les autres nœuds le reçoivent par la session système du relais et l'appliquent chez eux.
+ * En mode simple, rien n'est envoyé.
+ */
+@Slf4j
+@Component
+public class RoomSync {
+
+    public static final String DESTINATION = "/topic/room-sync";
+
+    // un nœud ignore ses propres envois ; quiz.node-id peut valoir 0 partout
+    private final String origin = UUID.randomUUID().toString();
+    private final BrokerRelay brokerRelay;
+    private final StompBroadcaster broadcaster;
+    private final ObjectMapper objectMapper;
+    private final ChatHistory chatHistory;
+    private final SnapshotCache snapshots;
+    private final RoomNameRegistry roomNames;
+
+    public RoomSync(BrokerRelay brokerRelay, StompBroadcaster broadcaster, ObjectMapper objectMapper,
+                    ChatHistory chatHistory, SnapshotCache snapshots, RoomNameRegistry roomNames) {
+        this.brokerRelay = brokerRelay;
+        this.broadcaster = broadcaster;
+        this.objectMapper = objectMapper;
+        this.chatHistory = chatHistory;
+        this.snapshots = snapshots;
+        this.roomNames = roomNames;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (brokerRelay.isEnabled()) {
+            brokerRelay.subscribe(DESTINATION, this::receive);
+        }
+    }
+
+    /**
+     * Annonce aux autres nœuds un évènement que ce nœud vient de publier.
+     */
+    public void published(String roomId, RoomEventDTO event) {
+        send(new Change(origin, roomId, event, false));
+    }
+
+    public void deleted(String roomId) {
+        send(new Change(origin, roomId, null, true));
+    }
+
+    private void send(Change change) {
+        if (brokerRelay.isEnabled()) {
+            broadcaster.broadcast(DESTINATION, change);
+        }
+    }
+
+    void receive(Message<?> message) {
+        Change change;
+        try {
+            change = objectMapper.readValue((byte[]) message.getPayload(), Change.class);
+        } catch (IOException | ClassCastException e) {
+            log.warn("Synchronisation de room illisible : {}", e.getMessage());
+            return;
+        }
+        if (!origin.equals(change.origin())) {
+            apply(change);
+        }
+    }
+
+    void apply(Change change) {
+        String roomId = change.roomId();
+        if (change.deleted()) {
+            snapshots.evict(SnapshotCache.Kind.ROOM, roomId);
+            chatHistory.evict(roomId);
+            roomNames.evict(roomId);
+            return;
+        }
+        snapshots.invalidate(SnapshotCache.Kind.ROOM, roomId);
+        switch (change.event()) {
+            // la ligne peut ne pas être encore écrite par le nœud d'origine : le message est ajouté tel quel
+            case RoomEventDTO.Chat chat -> chatHistory.append(
+                    new MessageDTO(chat.getId(), roomId, chat.getSender(), chat.getContent(), chat.getCreatedAt()));
+            case RoomEventDTO.RosterDelta delta -> {
+                delta.getJoined().forEach(p -> roomNames.markTaken(roomId, p.getUsername()));
+                delta.getLeft().stream().map(ParticipantDTO::getUsername)
+                        .forEach(username -> roomNames.release(roomId, username));
+            }
+            case null, default -> {
+            }
+        }
+    }
+
+    record Change(String origin, String roomId, RoomEventDTO event, boolean deleted) {
+    }
+}
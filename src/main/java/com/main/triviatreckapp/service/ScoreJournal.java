@@ -0,0 +1,115 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Journal d'écriture différée des scores : chaque variation de score est mise en file
+ * et écrite dans quiz_game_scores par lots JDBC, sans réécrire la collection Hibernate.
+ * Un lot en échec est gardé de côté (dernier total par joueur) et repris en tête du lot suivant :
+ * les totaux arrivés entre-temps, plus récents, l'emportent.
+ */
+@Slf4j
+@Service
+public class ScoreJournal {
+
+    // ignore les parties supprimées entre-temps (ex : tous les joueurs sont partis)
+    private static final String UPSERT_SQL = """
+            INSERT INTO quiz_game_scores (quiz_game_id, player, score)
+            SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM quiz_games WHERE id = ?)
+            ON CONFLICT (quiz_game_id, player) DO UPDATE SET score = EXCLUDED.score
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ScoreChange> queue = new LinkedBlockingQueue<>();
+    private final Map<ScoreKey, ScoreChange> failed = new ConcurrentHashMap<>();
+    private final Timer flushLatency;
+    private final DistributionSummary rowsPerFlush;
+
+    @Value("${quiz.scores.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public ScoreJournal(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        meterRegistry.gaugeCollectionSize("quiz.scores.journal.depth", List.of(), queue);
+        this.flushLatency = Timer.builder("quiz.scores.flush.latency")
+                .description("Durée d'écriture d'un lot de scores")
+                .register(meterRegistry);
+        this.rowsPerFlush = DistributionSummary.builder("quiz.scores.flush.rows")
+                .description("Lignes écrites par lot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une variation de score.
+     * @param delta points gagnés
+     * @param total score du joueur après la variation, c'est lui qui est écrit en base
+     */
+    public void append(Long gameDbId, String player, int delta, int total) {
+        queue.add(new ScoreChange(gameDbId, player, delta, total));
+    }
+
+    // synchronisé : deux lots écrits en parallèle pourraient se doubler et remettre un ancien total
+    @Scheduled(fixedDelayString = "${quiz.scores.flush-interval-ms:200}")
+    public synchronized void flush() {
+        // les totaux en échec sont plus anciens que tout ce qui est en file : ils passent en premier
+        List<ScoreChange> drained = new ArrayList<>(failed.values());
+        failed.clear();
+        while (queue.drainTo(drained, maxBatchSize) > 0 || !drained.isEmpty()) {
+            if (!writeBatch(drained)) {
+                // le reste attend le prochain passage, derrière le lot en échec
+                return;
+            }
+            drained.clear();
+        }
+    }
+
+    private boolean writeBatch(List<ScoreChange> changes) {
+        // seule la dernière valeur par (partie, joueur) compte
+        Map<ScoreKey, ScoreChange> latest = new LinkedHashMap<>();
+        for (ScoreChange change : changes) {
+            latest.put(new ScoreKey(change.gameDbId(), change.player()), change);
+        }
+        List<Object[]> rows = latest.values().stream()
+                .map(c -> new Object[]{c.gameDbId(), c.player(), c.total(), c.gameDbId()})
+                .toList();
+        try {
+            flushLatency.record(() -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+            rowsPerFlush.record(rows.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Échec de l'écriture de {} score(s), repris au prochain passage", rows.size(), e);
+            failed.putAll(latest);
+            return false;
+        }
+    }
+
+    /**
+     * Vide le journal à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void drain() {
+        flush();
+        if (!failed.isEmpty() || !queue.isEmpty()) {
+            log.error("{} score(s) non écrit(s) à l'arrêt", failed.size() + queue.size());
+        }
+    }
+
+    public record ScoreChange(Long gameDbId, String player, int delta, int total) {
+    }
+
+    private record ScoreKey(Long gameDbId, String player) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.entities.RoomSeat;
+import com.main.triviatreckapp.repository.RoomSeatRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Places occupées dans les rooms et jetons de reprise associés.
+ * <p>
+ * À l'arrivée dans une room, le joueur reçoit un jeton signé (room, pseudo, identifiant de jeton).
+ * Après un rafraîchissement ou une coupure, il le renvoie avec /app/join : la place est retrouvée
+ * sans repasser par la réservation de pseudo ni par l'ajout du participant.
+ * Chaque reprise remplace le jeton ; une place libérée rend ses jetons inutilisables.
+ * <p>
+ * Les places sont en base ({@link RoomSeat}) : derrière le répartiteur, après une panne ou un déploiement,
+ * le client revient souvent sur un autre nœud que celui où il est arrivé. La place retient aussi la session
+ * STOMP qui l'occupe et, pendant le délai de grâce d'une session coupée, l'heure de son départ
+ * ({@link DisconnectProcessor}) : la déconnexion tardive de l'ancienne session, après une reprise,
+ * ne libère pas la place, et une reprise faite sur un nœud annule le départ programmé par un autre.
+ */
+@Service
+public class SessionRegistry {
+
+    private static final String ROOM_CLAIM = "room";
+
+    private final Key signingKey;
+    private final long tokenTtlMs;
+    private final RoomSeatRepository seats;
+    private final Counter resumed;
+    private final Counter rejected;
+
+    public SessionRegistry(@Value("${security.jwt.secret-key}") String secretKey,
+                           @Value("${quiz.rooms.resume.token-ttl-ms:3600000}") long tokenTtlMs,
+                           RoomSeatRepository seats, MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.tokenTtlMs = tokenTtlMs;
+        this.seats = seats;
+        meterRegistry.gauge("quiz.rooms.sessions", seats, RoomSeatRepository::count);
+        this.resumed = Counter.builder("quiz.rooms.sessions.resumed")
+                .description("Places reprises avec un jeton de reprise")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("quiz.rooms.sessions.rejected")
+                .description("Jetons de reprise refusés (signature, expiration, place libérée)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre la place d'un joueur qui vient d'arriver.
+     * @return le jeton de reprise à lui transmettre
+     */
+    @Transactional
+    public String open(String roomId, String username, Long participantId, String sessionId) {
+        RoomSeat row = seats.findByRoomIdAndUsername(roomId, username).orElseGet(RoomSeat::new);
+        row.setRoomId(roomId);
+        row.setUsername(username);
+        row.setParticipantId(participantId);
+        row.setSessionId(sessionId);
+        row.setTokenId(UUID.randomUUID().toString());
+        row.setLeaveAt(null);
+        return sign(toSeat(seats.save(row)));
+    }
+
+    /**
+     * @return la place désignée par le jeton, vide si le jeton est invalide, expiré, remplacé,
+     * ou si la place a été libérée
+     */
+    @Transactional(readOnly = true)
+    public Optional<Seat> resolve(String token) {
+        Optional<Seat> seat = parse(token).flatMap(claims ->
+                seats.findByRoomIdAndUsername(claims.get(ROOM_CLAIM, String.class), claims.getSubject())
+                        .filter(current -> current.getTokenId().equals(claims.getId()))
+                        .map(SessionRegistry::toSeat));
+        if (seat.isEmpty()) {
+            rejected.increment();
+        }
+        return seat;
+    }
+
+    /**
+     * Passe la place à la nouvelle session et remplace le jeton.
+     * @return le nouveau jeton, vide si la place a été libérée ou reprise entre-temps
+     */
+    @Transactional
+    public Optional<String> resume(Seat seat, String sessionId) {
+        Seat next = new Seat(seat.roomId(), seat.username(), seat.participantId(), sessionId,
+                UUID.randomUUID().toString());
+        if (seats.resume(seat.roomId(), seat.username(), seat.tokenId(), sessionId, next.tokenId()) == 0) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        resumed.increment();
+        return Optional.of(sign(next));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isOpen(String roomId, String username) {
+        return seats.existsByRoomIdAndUsername(roomId, username);
+    }
+
+    /**
+     * Programme le départ d'une session coupée.
+     * @return false si la place n'existe plus ou est occupée par une autre session (reprise déjà faite)
+     */
+    @Transactional
+    public boolean scheduleLeave(String roomId, String username, String sessionId, Instant leaveAt) {
+        return seats.scheduleLeave(roomId, username, sessionId, leaveAt) > 0;
+    }
+
+    /**
+     * @return true si un départ était programmé pour cette place et vient d'être annulé
+     */
+    @Transactional
+    public boolean cancelLeave(String roomId, String username) {
+        return seats.cancelLeave(roomId, username) > 0;
+    }
+
+    /**
+     * Ferme les places dont le départ est dû. Chaque place n'est fermée que par un nœud :
+     * celui qui la retire de la base applique le départ.
+     * @return roomId -> pseudos à faire sortir de la room
+     */
+    @Transactional
+    public Map<String, Set<String>> expireLeaves(Instant now) {
+        Map<String, Set<String>> expired = new LinkedHashMap<>();
+        for (RoomSeat row : seats.findExpired(now)) {
+            if (seats.deleteExpired(row.getRoomId(), row.getUsername(), now) > 0) {
+                expired.computeIfAbsent(row.getRoomId(), id -> new LinkedHashSet<>()).add(row.getUsername());
+            }
+        }
+        return expired;
+    }
+
+    public long pendingLeaves() {
+        return seats.countByLeaveAtIsNotNull();
+    }
+
+    @Transactional
+    public void close(String roomId, String username) {
+        seats.deleteSeat(roomId, username);
+    }
+
+    private String sign(Seat seat) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setId(seat.tokenId())
+                .setSubject(seat.username())
+                .claim(ROOM_CLAIM, seat.roomId())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenTtlMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private Optional<Claims> parse(String token) {
+        try {
+            return Optional.of(Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Seat toSeat(RoomSeat row) {
+        return new Seat(row.getRoomId(), row.getUsername(), row.getParticipantId(), row.getSessionId(),
+                row.getTokenId());
+    }
+
+    public record Seat(String roomId, String username, Long participantId, String sessionId, String tokenId) {
+    }
+}
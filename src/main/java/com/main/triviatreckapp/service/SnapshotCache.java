@@ -0,0 +1,159 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Snapshots envoyés à l'abonnement, déjà sérialisés, par room et par partie.
+ * <p>
+ * Chaque clé a un numéro de version, incrémenté à chaque mutation publiée
+ * ({@link RoomEventPublisher}, {@link GameEventPublisher}, {@link GameStateEngine}).
+ * Un snapshot n'est servi que s'il a été construit pour la version courante : les 30 abonnements
+ * d'une classe qui arrive donnent une lecture et une sérialisation, pas trente.
+ * Les abonnements simultanés sur une clé périmée attendent la même construction.
+ * <p>
+ * Le snapshot, en JSON compact ({@link StompBroadcaster#encode}), part sur le canal sortant,
+ * au seul abonnement qui l'a demandé.
+ */
+@Component
+public class SnapshotCache {
+
+    public enum Kind { ROOM, GAME }
+
+    private final StompBroadcaster broadcaster;
+    private final MessageChannel clientOutboundChannel;
+    private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Kind, Counter> hits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> misses = new EnumMap<>(Kind.class);
+    private final Map<Kind, Timer> serialization = new EnumMap<>(Kind.class);
+
+    public SnapshotCache(StompBroadcaster broadcaster,
+                         @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                         MeterRegistry meterRegistry) {
+        this.broadcaster = broadcaster;
+        this.clientOutboundChannel = clientOutboundChannel;
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            hits.put(kind, Counter.builder("quiz.snapshots.requests")
+                    .description("Snapshots demandés à l'abonnement")
+                    .tags("kind", tag, "result", "hit")
+                    .register(meterRegistry));
+            misses.put(kind, Counter.builder("quiz.snapshots.requests")
+                    .description("Snapshots demandés à l'abonnement")
+                    .tags("kind", tag, "result", "miss")
+                    .register(meterRegistry));
+            serialization.put(kind, Timer.builder("quiz.snapshots.serialization")
+                    .description("Sérialisation JSON d'un snapshot")
+                    .tags("kind", tag)
+                    .register(meterRegistry));
+        }
+        meterRegistry.gaugeMapSize("quiz.snapshots.cached", List.of(), entries);
+    }
+
+    /**
+     * Envoie le snapshot courant de {@code id} au seul abonnement {@code subscriptionId} de la session.
+     * {@code loader} n'est appelé que si la version en cache est périmée.
+     * @return false si {@code loader} ne trouve rien (room ou partie inexistante)
+     */
+    public boolean send(Kind kind, String id, Supplier<? extends Optional<?>> loader,
+                        String sessionId, String subscriptionId, String destination) {
+        Optional<Encoded> payload = load(kind, id, loader);
+        payload.ifPresent(encoded -> deliver(encoded, sessionId, subscriptionId, destination));
+        return payload.isPresent();
+    }
+
+    /**
+     * Envoie un snapshot sans le garder : celui d'une partie tenue par un autre nœud,
+     * dont les mutations ne passent pas par ce nœud et n'invalideraient jamais le cache.
+     */
+    public void sendUncached(Object snapshot, String sessionId, String subscriptionId, String destination) {
+        deliver(encode(snapshot), sessionId, subscriptionId, destination);
+    }
+
+    private void deliver(Encoded encoded, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        // type et séquence du snapshot : la file d'envoi de la session peut fusionner les resynchronisations
+        encoded.headers().forEach(headers::setNativeHeader);
+        clientOutboundChannel.send(MessageBuilder.createMessage(encoded.payload(), headers.getMessageHeaders()));
+    }
+
+    Optional<byte[]> get(Kind kind, String id, Supplier<? extends Optional<?>> loader) {
+        return load(kind, id, loader).map(Encoded::payload);
+    }
+
+    private Optional<Encoded> load(Kind kind, String id, Supplier<? extends Optional<?>> loader) {
+        Key key = new Key(kind, id);
+        long version = versions.getOrDefault(key, 0L);
+        Entry fresh = new Entry(version, new CompletableFuture<>());
+        // une entrée de version supérieure (construite après une mutation plus récente) convient aussi
+        Entry current = entries.compute(key, (k, old) -> old != null && old.version() >= version ? old : fresh);
+        if (current != fresh) {
+            hits.get(kind).increment();
+            return current.payload().join();
+        }
+        misses.get(kind).increment();
+        try {
+            Optional<Encoded> payload = loader.get().map(snapshot -> serialization.get(kind).record(() -> encode(snapshot)));
+            fresh.payload().complete(payload);
+            if (payload.isEmpty()) {
+                // absence non gardée : la room peut être créée sans publier d'évènement avant
+                entries.remove(key, fresh);
+            }
+            return payload;
+        } catch (RuntimeException e) {
+            entries.remove(key, fresh);
+            fresh.payload().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * La room ou la partie a changé : le prochain abonnement reconstruit le snapshot.
+     */
+    public void invalidate(Kind kind, String id) {
+        Key key = new Key(kind, id);
+        versions.merge(key, 1L, Long::sum);
+        entries.remove(key);
+    }
+
+    public void evict(Kind kind, String id) {
+        Key key = new Key(kind, id);
+        versions.remove(key);
+        entries.remove(key);
+    }
+
+    private Encoded encode(Object snapshot) {
+        return new Encoded(broadcaster.encode(snapshot), StompBroadcaster.eventHeaders(snapshot));
+    }
+
+    private record Key(Kind kind, String id) {
+    }
+
+    private record Entry(long version, CompletableFuture<Optional<Encoded>> payload) {
+    }
+
+    private record Encoded(byte[] payload, Map<String, String> headers) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.main.triviatreckapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Membres déclarés dans {@code quiz.cluster.nodes}, par exemple
+ * {@code 0=http://10.0.0.1:8080,1=http://10.0.0.2:8080} ; vide, le nœud est seul.
+ * La liste ne change que par {@link #update}, par exemple dans un test à plusieurs JVM.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.cluster.membership", havingValue = "static", matchIfMissing = true)
+public class StaticClusterMembership implements ClusterMembership {
+
+    private final String localNodeId;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile List<Node> members;
+
+    public StaticClusterMembership(@Value("${quiz.node-id:0}") String localNodeId,
+                                   @Value("${quiz.cluster.nodes:}") String nodes) {
+        this.localNodeId = localNodeId;
+        List<Node> parsed = parse(nodes);
+        this.members = parsed.isEmpty() ? List.of(new Node(localNodeId, null)) : parsed;
+        if (members.stream().noneMatch(n -> n.id().equals(localNodeId))) {
+            throw new IllegalArgumentException("quiz.cluster.nodes ne contient pas ce nœud : " + localNodeId);
+        }
+    }
+
+    @Override
+    public String localNodeId() {
+        return localNodeId;
+    }
+
+    @Override
+    public List<Node> members() {
+        return members;
+    }
+
+    @Override
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remplace la liste des membres et prévient les abonnés (passation des parties).
+     */
+    public void update(List<Node> members) {
+        this.members = List.copyOf(members);
+        listeners.forEach(Runnable::run);
+    }
+
+    static List<Node> parse(String nodes) {
+        List<Node> parsed = new ArrayList<>();
+        for (String entry : nodes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Entrée de quiz.cluster.nodes invalide, id=url attendu : " + entry);
+            }
+            parsed.add(new Node(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,100 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Diffusion sur le broker : l'objet est sérialisé une seule fois, en JSON compact
+ * (sans l'indentation de spring.jackson.serialization.indent_output), et le même tableau d'octets
+ * est remis par le broker à chaque abonné de la destination. Seuls les en-têtes STOMP
+ * (subscription, message-id) restent propres à chaque session.
+ * <p>
+ * Un {@link GameEventDTO} porte en plus les en-têtes STOMP {@link #EVENT_TYPE_HEADER} et {@link #EVENT_SEQ_HEADER} :
+ * la file d'envoi de chaque session s'en sert pour fusionner les mises à jour d'état sans lire le corps
+ * ({@link com.main.triviatreckapp.config.OutboundConflation}).
+ */
+@Component
+public class StompBroadcaster {
+
+    public static final String EVENT_TYPE_HEADER = "event-type";
+    public static final String EVENT_SEQ_HEADER = "event-seq";
+
+    private final ObjectWriter writer;
+    private final MessageChannel brokerChannel;
+    private final Timer encoding;
+    private final DistributionSummary payloadSizes;
+
+    public StompBroadcaster(ObjectMapper objectMapper,
+                            @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                            MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.brokerChannel = brokerChannel;
+        this.encoding = Timer.builder("quiz.broadcast.encoding")
+                .description("Sérialisation d'un message diffusé")
+                .register(meterRegistry);
+        this.payloadSizes = DistributionSummary.builder("quiz.broadcast.payload")
+                .description("Taille d'un message diffusé, avant la répartition entre abonnés")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sérialise {@code payload} une fois et le diffuse à tous les abonnés de {@code destination}.
+     */
+    public void broadcast(String destination, Object payload) {
+        send(destination, encode(payload), eventHeaders(payload));
+    }
+
+    /**
+     * Diffuse un message déjà sérialisé par {@link #encode}.
+     */
+    public void send(String destination, byte[] payload) {
+        send(destination, payload, Map.of());
+    }
+
+    private void send(String destination, byte[] payload, Map<String, String> nativeHeaders) {
+        payloadSizes.record(payload.length);
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        nativeHeaders.forEach(headers::setNativeHeader);
+        brokerChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+    }
+
+    /**
+     * Type et numéro de séquence d'un évènement de partie ; aucun en-tête pour les autres messages.
+     */
+    public static Map<String, String> eventHeaders(Object payload) {
+        if (payload instanceof GameEventDTO event) {
+            return Map.of(EVENT_TYPE_HEADER, event.getClass().getSimpleName(),
+                    EVENT_SEQ_HEADER, Long.toString(event.getSeq()));
+        }
+        return Map.of();
+    }
+
+    public byte[] encode(Object payload) {
+        return encoding.record(() -> {
+            try {
+                return writer.writeValueAsBytes(payload);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
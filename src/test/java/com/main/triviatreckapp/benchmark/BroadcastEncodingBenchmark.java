@@ -0,0 +1,98 @@
+package com.main.triviatreckapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.dto.QuizGameDTO;
+import com.main.triviatreckapp.dto.ScoreDTO;
+import com.main.triviatreckapp.service.StompBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de sérialisation d'une diffusion sur /game/{gameId}, partie de 50 joueurs et 20 questions :
+ * <ul>
+ *   <li>{@code indentedConverter} : ancien chemin, convertAndSend avec le convertisseur
+ *   de l'application (indent_output=true) ;</li>
+ *   <li>{@code compactEncode} : {@link StompBroadcaster#encode}, JSON compact.</li>
+ * </ul>
+ * Dans les deux cas le broker partage ensuite le tableau d'octets entre les abonnés.
+ * La taille des deux encodages est affichée au démarrage.
+ * Lancement : exécuter {@link #main} depuis le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastEncodingBenchmark {
+
+    @Param({"snapshot", "scoreChanged"})
+    public String event;
+
+    @Param({"50"})
+    public int players;
+
+    private GameEventDTO payload;
+    private MappingJackson2MessageConverter indentedConverter;
+    private StompBroadcaster broadcaster;
+
+    @Setup
+    public void setUp() {
+        List<QuestionDTO> questions = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            questions.add(new QuestionDTO(id, "Question numéro " + id + " ?", "medium", "Histoire", "HISTOIRE",
+                    "bonne", List.of("a", "b", "c"), List.of("a", "bonne", "b", "c")));
+        }
+        List<ScoreDTO> scores = new ArrayList<>();
+        List<ParticipantDTO> participants = new ArrayList<>();
+        for (long i = 1; i <= players; i++) {
+            scores.add(new ScoreDTO("joueur" + i, (int) (i * 10)));
+            participants.add(new ParticipantDTO(i, "joueur" + i, 0, null));
+        }
+        QuizGameDTO game = new QuizGameDTO("room-1", "game-1", questions.get(3), questions, scores, false,
+                participants, 3, false);
+        payload = "snapshot".equals(event)
+                ? new GameEventDTO.Snapshot(game)
+                : new GameEventDTO.ScoreChanged("joueur7", 70, 10);
+        payload.setGameId("game-1");
+        payload.setSeq(42);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        indentedConverter = new MappingJackson2MessageConverter(
+                objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT));
+        broadcaster = new StompBroadcaster(objectMapper, (message, timeout) -> true, new SimpleMeterRegistry());
+
+        System.out.printf("%n%s : %d octets indenté, %d octets compact%n", event,
+                ((byte[]) indentedConverter.toMessage(payload, null).getPayload()).length,
+                broadcaster.encode(payload).length);
+    }
+
+    @Benchmark
+    public Message<?> indentedConverter() {
+        return indentedConverter.toMessage(payload, null);
+    }
+
+    @Benchmark
+    public byte[] compactEncode() {
+        return broadcaster.encode(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BroadcastEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.main.triviatreckapp.benchmark;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.service.ChatWriter;
+import com.main.triviatreckapp.service.MessageIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages de chat écrits par seconde : ancien chemin (recherche de la room puis INSERT d'une ligne,
+ * une transaction par message) contre l'écriture groupée de {@link ChatWriter}.
+ * {@code rooms=1} mesure une room très active, {@code rooms=1000} des messages répartis sur 1 000 rooms.
+ * La file du writer est bornée : en régime établi, le débit mesuré est celui des écritures en base.
+ * <p>
+ * Nécessite une base PostgreSQL au schéma de l'application (ddl-auto) :
+ * <pre>
+ *   -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/triviatreck -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ * </pre>
+ * Lancement : exécuter {@link #main} depuis le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class ChatWriteBenchmark {
+
+    private static final String ROOM_PREFIX = "bench-chat-";
+
+    @Param({"1", "1000"})
+    public int rooms;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ChatWriter chatWriter;
+    private final MessageIdGenerator ids = new MessageIdGenerator(1);
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/triviatreck"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (int i = 0; i < rooms; i++) {
+            jdbcTemplate.update("INSERT INTO rooms (room_id, active_game) VALUES (?, false) ON CONFLICT (room_id) DO NOTHING",
+                    ROOM_PREFIX + i);
+        }
+        // attente longue : le producteur est freiné par la file pleine au lieu d'être refusé
+        chatWriter = new ChatWriter(jdbcTemplate, 10_000, 256, 10, TimeUnit.SECONDS.toMillis(30),
+                new SimpleMeterRegistry());
+        chatWriter.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        chatWriter.stop();
+        jdbcTemplate.update("DELETE FROM messages WHERE room_id IN (SELECT id FROM rooms WHERE room_id LIKE ?)",
+                ROOM_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM rooms WHERE room_id LIKE ?", ROOM_PREFIX + "%");
+    }
+
+    @Benchmark
+    public void singleRowTransaction() {
+        String roomId = randomRoom();
+        transactionTemplate.executeWithoutResult(status -> {
+            Long roomDbId = jdbcTemplate.queryForObject("SELECT id FROM rooms WHERE room_id = ?", Long.class, roomId);
+            jdbcTemplate.update("""
+                    INSERT INTO messages (id, room_id, sender, content, created_at, timestamp)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, ids.nextId(), roomDbId, "bench", "message", Timestamp.from(Instant.now()),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        });
+    }
+
+    @Benchmark
+    public void groupCommit() {
+        chatWriter.enqueue(new MessageDTO(ids.nextId(), randomRoom(), "bench", "message", Instant.now()));
+    }
+
+    private String randomRoom() {
+        return ROOM_PREFIX + ThreadLocalRandom.current().nextInt(rooms);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChatWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
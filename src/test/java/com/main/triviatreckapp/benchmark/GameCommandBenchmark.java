@@ -0,0 +1,73 @@
+package com.main.triviatreckapp.benchmark;
+
+import com.main.triviatreckapp.service.GameMailbox;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Commandes concurrentes sur une même partie : ancien verrou équitable contre boîte aux lettres.
+ * 16 threads jouent les joueurs qui répondent en même temps ; la commande met à jour un score.
+ * <ul>
+ *   <li>{@code fairLock} : ReentrantLock(true), passage de main à chaque acquisition ;</li>
+ *   <li>{@code mailboxPost} : dépôt sans attente, un aller-retour tous les 256 dépôts pour borner la file ;</li>
+ *   <li>{@code mailboxCall} : dépôt puis attente du résultat (aller-retour complet).</li>
+ * </ul>
+ * Lancement : exécuter {@link #main} depuis le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GameCommandBenchmark {
+
+    private final ReentrantLock fairLock = new ReentrantLock(true);
+    private final Map<String, Integer> lockedScores = new HashMap<>();
+
+    private final GameMailbox mailbox = new GameMailbox();
+    private final Map<String, Integer> mailboxScores = new HashMap<>();
+
+    @State(Scope.Thread)
+    public static class Player {
+        final String name = "joueur" + Thread.currentThread().threadId();
+        int posted;
+    }
+
+    @Benchmark
+    public void fairLock(Player player) {
+        fairLock.lock();
+        try {
+            lockedScores.merge(player.name, 10, Integer::sum);
+        } finally {
+            fairLock.unlock();
+        }
+    }
+
+    @Benchmark
+    public void mailboxPost(Player player) {
+        mailbox.post(() -> mailboxScores.merge(player.name, 10, Integer::sum));
+        if (++player.posted % 256 == 0) {
+            mailbox.call(() -> null).join();
+        }
+    }
+
+    @Benchmark
+    public Integer mailboxCall(Player player) {
+        return mailbox.call(() -> mailboxScores.merge(player.name, 10, Integer::sum)).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GameCommandBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
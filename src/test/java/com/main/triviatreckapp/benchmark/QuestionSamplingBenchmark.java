@@ -0,0 +1,84 @@
+package com.main.triviatreckapp.benchmark;
+
+import com.main.triviatreckapp.entities.Question;
+import com.main.triviatreckapp.service.QuestionCatalog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tirage des questions d'une partie : catalogue en mémoire contre l'ancien
+ * findAll + Collections.shuffle (hors coût SQL, la liste est seulement recopiée).
+ * Lancement : exécuter {@link #main} depuis le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionSamplingBenchmark {
+
+    private static final String[] CATEGORIES = {"HISTOIRE", "SCIENCE", "SPORT", "MUSIQUE", "GEOGRAPHIE",
+            "LITTERATURE", "CINEMA_TELEVISION", "POP_CULTURE", "CULTURE_GENERALE", "LOGIQUE"};
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @Param({"776", "100000"})
+    public int catalogSize;
+
+    private List<Question> table;
+    private QuestionCatalog catalog;
+    private List<QuestionCatalog.Slot> composition;
+
+    @Setup
+    public void setUp() {
+        table = new ArrayList<>(catalogSize);
+        for (long id = 1; id <= catalogSize; id++) {
+            String categoryId = CATEGORIES[(int) (id % CATEGORIES.length)];
+            Question question = new Question();
+            question.setId(id);
+            question.setQuestion("Question " + id);
+            question.setDifficulty(DIFFICULTIES[(int) (id % DIFFICULTIES.length)]);
+            question.setCategory(categoryId);
+            question.setCategoryId(categoryId);
+            question.setCorrectAnswer("bonne");
+            question.setIncorrectAnswers(List.of("a", "b", "c"));
+            table.add(question);
+        }
+        catalog = QuestionCatalog.of(1, table);
+        composition = List.of(
+                new QuestionCatalog.Slot("HISTOIRE", "easy", 5),
+                new QuestionCatalog.Slot(null, "medium", 10),
+                new QuestionCatalog.Slot(null, "hard", 5));
+    }
+
+    @Benchmark
+    public List<Question> findAllAndShuffle() {
+        List<Question> all = new ArrayList<>(table);
+        Collections.shuffle(all);
+        return all.subList(0, 20);
+    }
+
+    @Benchmark
+    public long[] catalogSample() {
+        return catalog.sample(null, null, 20, ThreadLocalRandom.current());
+    }
+
+    @Benchmark
+    public long[] catalogCompose() {
+        return catalog.compose(composition, ThreadLocalRandom.current());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuestionSamplingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
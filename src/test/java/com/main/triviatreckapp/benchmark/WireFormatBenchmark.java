@@ -0,0 +1,105 @@
+package com.main.triviatreckapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.dto.QuizGameDTO;
+import com.main.triviatreckapp.dto.RoomDTO;
+import com.main.triviatreckapp.dto.ScoreDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Taille et temps d'encodage / décodage des formats négociés au CONNECT
+ * ({@link com.main.triviatreckapp.config.WireFormatNegotiator}) : JSON compact, CBOR, Smile,
+ * pour un QuizGameDTO (50 joueurs, 20 questions) et un RoomDTO (50 joueurs, 50 messages).
+ * La taille de chaque encodage est affichée au démarrage.
+ * Lancement : exécuter {@link #main} depuis le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"quizGame", "room"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private Class<?> type;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+        mapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+            default -> json;
+        };
+        List<ParticipantDTO> participants = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            participants.add(new ParticipantDTO(i, "joueur" + i, 0, null));
+        }
+        if ("room".equals(payload)) {
+            List<MessageDTO> messages = new ArrayList<>();
+            for (long id = 1; id <= 50; id++) {
+                messages.add(new MessageDTO(id, "room-1", "joueur" + (id % 10 + 1), "Message numéro " + id,
+                        Instant.parse("2025-01-01T10:00:00Z").plusSeconds(id)));
+            }
+            value = new RoomDTO("room-1", participants, messages, "game-1", true);
+            type = RoomDTO.class;
+        } else {
+            List<QuestionDTO> questions = new ArrayList<>();
+            for (long id = 1; id <= 20; id++) {
+                questions.add(new QuestionDTO(id, "Question numéro " + id + " ?", "medium", "Histoire", "HISTOIRE",
+                        "bonne", List.of("a", "b", "c"), List.of("a", "bonne", "b", "c")));
+            }
+            List<ScoreDTO> scores = new ArrayList<>();
+            for (long i = 1; i <= 50; i++) {
+                scores.add(new ScoreDTO("joueur" + i, (int) (i * 10)));
+            }
+            value = new QuizGameDTO("room-1", "game-1", questions.get(3), questions, scores, false,
+                    participants, 3, false);
+            type = QuizGameDTO.class;
+        }
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s en %s : %d octets%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,209 @@
+package com.main.triviatreckapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.triviatreckapp.TriviatreckAppApplication;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import com.main.triviatreckapp.service.ChatService;
+import com.main.triviatreckapp.service.DisconnectProcessor;
+import com.main.triviatreckapp.service.RoomService;
+import com.main.triviatreckapp.service.SessionRegistry;
+import com.main.triviatreckapp.service.StompBroadcaster;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deux nœuds en mode relais derrière un Artemis embarqué, sur la même base : une diffusion faite sur un nœud
+ * atteint les joueurs connectés aux deux, et l'état de room gardé en mémoire par l'autre nœud suit.
+ */
+class BrokerRelayClusterTest {
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static ThreadPoolTaskScheduler scheduler;
+    private static WebSocketStompClient stompClient;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        int stompPort = freePort();
+        broker = new EmbeddedActiveMQ().setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort + "?protocols=STOMP"));
+        broker.start();
+
+        nodeA = startNode("node-a", stompPort, 1);
+        nodeB = startNode("node-b", stompPort, 2);
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        stompClient.setMessageConverter(converter);
+        stompClient.setTaskScheduler(scheduler);
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void gameBroadcast_shouldReachPlayersOnBothNodes() throws Exception {
+        // Arrange : un joueur sur chaque nœud, abonné à la même partie
+        BlockingQueue<GameEventDTO> onA = subscribe(nodeA, "/game/game-1", GameEventDTO.class);
+        BlockingQueue<GameEventDTO> onB = subscribe(nodeB, "/game/game-1", GameEventDTO.class);
+        GameEventDTO.ScoreChanged event = new GameEventDTO.ScoreChanged("alice", 10, 10);
+        event.setGameId("game-1");
+        event.setSeq(1);
+
+        // Act : la partie est jouée sur le nœud A
+        nodeA.getBean(StompBroadcaster.class).broadcast("/game/game-1", event);
+
+        // Assert
+        GameEventDTO receivedOnA = onA.poll(10, TimeUnit.SECONDS);
+        GameEventDTO receivedOnB = onB.poll(10, TimeUnit.SECONDS);
+        assertInstanceOf(GameEventDTO.ScoreChanged.class, receivedOnA);
+        assertInstanceOf(GameEventDTO.ScoreChanged.class, receivedOnB);
+        assertEquals(1, receivedOnB.getSeq());
+    }
+
+    @Test
+    void resume_shouldReclaimSeatOnOtherNode_afterDisconnectOnOwner() {
+        // Arrange : alice est assise et se déconnecte du nœud A
+        String token = nodeA.getBean(SessionRegistry.class).open("room-seat", "alice", 7L, "session-a");
+        nodeA.getBean(DisconnectProcessor.class).onDisconnect("room-seat", "alice", "session-a");
+
+        // Act : le répartiteur la renvoie sur le nœud B
+        SessionRegistry onB = nodeB.getBean(SessionRegistry.class);
+        SessionRegistry.Seat seat = onB.resolve(token).orElseThrow();
+        boolean reclaimed = nodeB.getBean(DisconnectProcessor.class).reclaim("room-seat", "alice");
+        boolean resumed = onB.resume(seat, "session-b").isPresent();
+
+        // Assert : le départ prévu par A n'est plus dû, sur aucun nœud
+        assertTrue(reclaimed);
+        assertTrue(resumed);
+        assertFalse(nodeA.getBean(SessionRegistry.class)
+                .expireLeaves(Instant.now().plus(Duration.ofHours(1))).containsKey("room-seat"));
+    }
+
+    @Test
+    void chatMessage_shouldAppearInRoomSnapshot_whenResubscribingOnOtherNode() throws Exception {
+        // Arrange : la room est créée sur A, B a déjà mis en cache son snapshot et sa fenêtre de chat
+        nodeA.getBean(RoomService.class).addUserToRoom("room-1", "alice", "t1");
+        RoomEventDTO first = subscribe(nodeB, "/chatroom/room-1", RoomEventDTO.class).poll(10, TimeUnit.SECONDS);
+        assertInstanceOf(RoomEventDTO.Snapshot.class, first);
+
+        // Act : un message est écrit sur A
+        nodeA.getBean(ChatService.class).saveMessage("room-1", "alice", "bonjour");
+
+        // Assert : un nouvel abonné sur B le voit (la synchronisation passe par le broker, en asynchrone)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<String> contents = List.of();
+        while (!contents.contains("bonjour") && System.nanoTime() < deadline) {
+            RoomEventDTO again = subscribe(nodeB, "/chatroom/room-1", RoomEventDTO.class).poll(10, TimeUnit.SECONDS);
+            contents = ((RoomEventDTO.Snapshot) again).getRoom().getMessages().stream()
+                    .map(MessageDTO::getContent).toList();
+            Thread.sleep(100);
+        }
+        assertTrue(contents.contains("bonjour"), "snapshot de B périmé : " + contents);
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, int stompPort, int nodeId) throws Exception {
+        // en arguments : ils passent avant application.properties et ses variables d'environnement
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TriviatreckAppApplication.class).run(
+                "--server.port=0",
+                // base partagée, comme en production
+                "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--security.jwt.secret-key=3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b",
+                "--sentry.dsn=",
+                "--quiz.node-id=" + nodeId,
+                "--quiz.broker.mode=relay",
+                "--quiz.broker.relay.port=" + stompPort);
+        // la session système du relais se connecte en arrière-plan
+        BrokerRelay relay = context.getBean(BrokerRelay.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!relay.isAvailable()) {
+            assertTrue(System.nanoTime() < deadline, name + " : relais non connecté au broker");
+            Thread.sleep(50);
+        }
+        return context;
+    }
+
+    private static <T> BlockingQueue<T> subscribe(ConfigurableApplicationContext node, String destination,
+                                                  Class<T> type) throws Exception {
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        BlockingQueue<T> received = new LinkedBlockingQueue<>();
+        // le reçu vient du broker : l'abonnement y est enregistré avant la diffusion
+        session.setAutoReceipt(true);
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return type;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(type.cast(payload));
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertTrue(subscribed.await(10, TimeUnit.SECONDS), "abonnement non confirmé par le broker");
+        return received;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.main.triviatreckapp.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ClusterSecretFilterTest {
+
+    @Test
+    void doFilter_shouldRejectInternalCall_whenSecretIsMissingOrWrong() throws Exception {
+        // Arrange
+        ClusterSecretFilter filter = new ClusterSecretFilter("s3cret");
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest wrong = new MockHttpServletRequest("POST", "/internal/games/g1/start");
+        wrong.addHeader(ClusterSecretFilter.HEADER, "guess");
+        MockHttpServletResponse missingResponse = new MockHttpServletResponse();
+        MockHttpServletResponse wrongResponse = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("POST", "/internal/games/g1/start"), missingResponse, chain);
+        filter.doFilter(wrong, wrongResponse, chain);
+
+        // Assert
+        assertEquals(403, missingResponse.getStatus());
+        assertEquals(403, wrongResponse.getStatus());
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void doFilter_shouldPassInternalCallWithSecret_andLeaveOtherPathsAlone() throws Exception {
+        // Arrange
+        ClusterSecretFilter filter = new ClusterSecretFilter("s3cret");
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest internal = new MockHttpServletRequest("GET", "/internal/games/g1/snapshot");
+        internal.addHeader(ClusterSecretFilter.HEADER, "s3cret");
+        MockHttpServletRequest publicCall = new MockHttpServletRequest("GET", "/api/rooms");
+
+        // Act
+        filter.doFilter(internal, new MockHttpServletResponse(), chain);
+        filter.doFilter(publicCall, new MockHttpServletResponse(), chain);
+
+        // Assert
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_shouldRejectEveryInternalCall_whenNoSecretIsConfigured() throws Exception {
+        // Arrange
+        ClusterSecretFilter filter = new ClusterSecretFilter("");
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/internal/games/g1/handoff");
+        request.addHeader(ClusterSecretFilter.HEADER, "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        verifyNoInteractions(chain);
+    }
+}
@@ -0,0 +1,155 @@
+package com.main.triviatreckapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboundConflationTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final WebSocketSubscriptionInterceptor subscriptions = mock(WebSocketSubscriptionInterceptor.class);
+    private WebSocketSession delegate;
+
+    @Test
+    void sendMessage_shouldKeepOnlyNewestSnapshot_andNeverDropQuestionOrChat() throws Exception {
+        // Arrange : le client est bloqué sur la première trame
+        WebSocketSession session = connect(new OutboundConflation(256, 256, 60_000, subscriptions, meterRegistry));
+        session.sendMessage(game("ScoreChanged", 1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        session.sendMessage(game("ScoreChanged", 2));
+        session.sendMessage(game("QuestionAdvanced", 3));
+        session.sendMessage(game("ScoreChanged", 4));
+        session.sendMessage(game("Snapshot", 4));
+        session.sendMessage(new TextMessage("MESSAGE\ndestination:/chatroom/room-1\n\n{}\u0000"));
+        session.sendMessage(game("Snapshot", 5));
+        release.countDown();
+
+        // Assert
+        verify(delegate, timeout(5000).times(5)).sendMessage(any());
+        assertEquals(List.of("ScoreChanged:1", "ScoreChanged:2", "QuestionAdvanced:3", "/chatroom/room-1", "Snapshot:5"),
+                sent);
+        assertEquals(2, meterRegistry.get("quiz.ws.outbound.conflated").counter().count());
+    }
+
+    @Test
+    void sendMessage_shouldReplaceQueuedDeltasWithFreshSnapshot_pastResyncThreshold() throws Exception {
+        // Arrange : le client est bloqué, le snapshot demandé arrive une fois les évènements en file
+        WebSocketSession session = connect(new OutboundConflation(256, 3, 60_000, subscriptions, meterRegistry));
+        CountDownLatch queued = new CountDownLatch(1);
+        when(subscriptions.sendGameSnapshot("g1", "s1", "sub-1", "/game/g1")).thenAnswer(invocation -> {
+            queued.await(5, TimeUnit.SECONDS);
+            session.sendMessage(game("Snapshot", 8));
+            return true;
+        });
+        session.sendMessage(game("ScoreChanged", 1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        for (int seq = 2; seq <= 8; seq++) {
+            session.sendMessage(game(seq % 2 == 0 ? "PlayerAnswered" : "ScoreChanged", seq));
+        }
+        queued.countDown();
+        verify(subscriptions, timeout(5000)).sendGameSnapshot("g1", "s1", "sub-1", "/game/g1");
+        release.countDown();
+
+        // Assert : un seul snapshot remplace les sept évènements, la session reste ouverte
+        verify(delegate, timeout(5000).times(2)).sendMessage(any());
+        assertEquals(List.of("ScoreChanged:1", "Snapshot:8"), sent);
+        assertEquals(1, meterRegistry.get("quiz.ws.outbound.resyncs").counter().count());
+        verify(delegate, never()).close(any());
+    }
+
+    @Test
+    void sendMessage_shouldEvictSession_whenQueueIsTooDeep() throws Exception {
+        // Arrange
+        WebSocketSession session = connect(new OutboundConflation(2, 256, 60_000, subscriptions, meterRegistry));
+        session.sendMessage(game("ScoreChanged", 1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // Act : les scores ne sont pas couverts par un snapshot, la file grossit
+        for (int seq = 2; seq <= 5; seq++) {
+            session.sendMessage(game("ScoreChanged", seq));
+        }
+        release.countDown();
+
+        // Assert
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, meterRegistry.get("quiz.ws.outbound.evicted").tag("reason", "depth").counter().count());
+        verify(delegate, after(200).times(1)).sendMessage(any());
+    }
+
+    @Test
+    void sendMessage_shouldCloseSession_whenDeliveryFails() throws Exception {
+        // Arrange
+        WebSocketSession session = connect(new OutboundConflation(256, 256, 60_000, subscriptions, meterRegistry));
+        doThrow(new IOException("connexion réinitialisée")).when(delegate).sendMessage(any());
+
+        // Act
+        session.sendMessage(game("ScoreChanged", 1));
+
+        // Assert : la session n'est pas laissée ouverte sans plus rien recevoir
+        verify(delegate, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, meterRegistry.get("quiz.ws.outbound.evicted").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    void sweep_shouldEvictStalledSession_withoutFurtherTraffic() throws Exception {
+        // Arrange : la première trame reste bloquée, plus rien n'est envoyé ensuite
+        OutboundConflation conflation = new OutboundConflation(256, 256, 50, subscriptions, meterRegistry);
+        WebSocketSession session = connect(conflation);
+        session.sendMessage(game("ScoreChanged", 1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // Act
+        conflation.sweep();
+
+        // Assert
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, meterRegistry.get("quiz.ws.outbound.evicted").tag("reason", "lag").counter().count());
+        release.countDown();
+    }
+
+    private WebSocketSession connect(OutboundConflation conflation) throws Exception {
+        delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("s1");
+        doAnswer(invocation -> {
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            OutboundConflation.Frame frame = OutboundConflation.frameOf(message);
+            sent.add(frame == null ? ((String) message.getPayload()).split("\n")[1].substring(12)
+                    : frame.type() + ":" + frame.seq());
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(delegate).sendMessage(any());
+        WebSocketHandler stomp = mock(WebSocketHandler.class);
+        conflation.decorator().decorate(stomp).afterConnectionEstablished(delegate);
+        ArgumentCaptor<WebSocketSession> decorated = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(stomp).afterConnectionEstablished(decorated.capture());
+        return decorated.getValue();
+    }
+
+    private static TextMessage game(String type, long seq) {
+        return new TextMessage("MESSAGE\ndestination:/game/g1\nsubscription:sub-1\nevent-type:" + type + "\nevent-seq:" + seq
+                + "\ncontent-type:application/json\n\n{}\u0000");
+    }
+}
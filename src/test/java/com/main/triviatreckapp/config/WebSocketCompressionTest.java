@@ -0,0 +1,58 @@
+package com.main.triviatreckapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketCompressionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void negotiate_shouldPreferContextTakeover_andDropDeflateWhenDisabled() {
+        // Arrange
+        WebSocketExtension noTakeover = new WebSocketExtension(WebSocketCompression.PERMESSAGE_DEFLATE,
+                Map.of("server_no_context_takeover", ""));
+        WebSocketExtension takeover = new WebSocketExtension(WebSocketCompression.PERMESSAGE_DEFLATE,
+                Map.of("client_max_window_bits", ""));
+        List<WebSocketExtension> requested = List.of(noTakeover, takeover);
+
+        // Act
+        List<WebSocketExtension> enabled = new WebSocketCompression(true, 1024, 1, meterRegistry).negotiate(requested);
+        List<WebSocketExtension> disabled = new WebSocketCompression(false, 1024, 1, meterRegistry).negotiate(requested);
+
+        // Assert
+        assertEquals(List.of(takeover, noTakeover), enabled);
+        assertTrue(disabled.isEmpty());
+    }
+
+    @Test
+    void record_shouldSampleLargeFramesOnly() throws InterruptedException {
+        // Arrange
+        WebSocketCompression compression = new WebSocketCompression(true, 1024, 1, meterRegistry);
+        byte[] game = "{\"question\":\"Question numéro 4 ?\",\"options\":[\"a\",\"b\",\"c\"]}".repeat(50)
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        compression.record(game, true);
+        compression.record("\n".getBytes(StandardCharsets.UTF_8), true);
+
+        // Assert : l'échantillon est compressé hors du thread d'envoi
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("quiz.ws.compression.cpu").timer().count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, meterRegistry.get("quiz.ws.compression.cpu").timer().count());
+        assertTrue(meterRegistry.get("quiz.ws.compression.ratio").summary().mean() < 0.2);
+        assertEquals(1, meterRegistry.get("quiz.ws.compression.small").counter().count());
+        assertEquals(game.length + 1,
+                meterRegistry.get("quiz.ws.frames.bytes").tag("extension", "permessage-deflate").counter().count());
+    }
+}
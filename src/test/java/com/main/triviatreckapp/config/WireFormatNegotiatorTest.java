@@ -0,0 +1,89 @@
+package com.main.triviatreckapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.main.triviatreckapp.dto.PlayerAnswerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatNegotiatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WireFormatNegotiator negotiator;
+
+    @BeforeEach
+    void setUp() {
+        negotiator = new WireFormatNegotiator(objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void outbound_shouldTranscodeSharedJsonOnce_forCborSessions() throws Exception {
+        // Arrange : deux sessions CBOR, une session JSON, un même message diffusé
+        connect("session-1", "application/cbor, application/json");
+        connect("session-2", "application/cbor");
+        connect("session-3", null);
+        byte[] json = "{\"gameId\":\"game-1\",\"currentQuestionIndex\":3,\"waitingForNext\":false}".getBytes();
+
+        // Act
+        Message<?> first = negotiator.encodeForSession(broadcast("session-1", json));
+        Message<?> second = negotiator.encodeForSession(broadcast("session-2", json));
+        Message<?> plain = broadcast("session-3", json);
+
+        // Assert
+        assertSame(first.getPayload(), second.getPayload());
+        assertEquals(new MimeType("application", "cbor"), SimpMessageHeaderAccessor.wrap(first).getContentType());
+        assertEquals(objectMapper.readTree(json),
+                new ObjectMapper(new CBORFactory()).readTree((byte[]) first.getPayload()));
+        assertSame(plain, negotiator.encodeForSession(plain));
+    }
+
+    @Test
+    void converters_shouldReadCborSend() throws Exception {
+        // Arrange
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(new PlayerAnswerDTO("7", "Paris"));
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(new MimeType("application", "cbor"));
+        Message<byte[]> send = MessageBuilder.createMessage(cbor, headers.getMessageHeaders());
+
+        // Act
+        MappingJackson2MessageConverter converter = Arrays.stream(negotiator.converters())
+                .filter(c -> c.getSupportedMimeTypes().contains(new MimeType("application", "cbor")))
+                .findFirst().orElseThrow();
+        PlayerAnswerDTO answer = (PlayerAnswerDTO) converter.fromMessage(send, PlayerAnswerDTO.class);
+
+        // Assert
+        assertNotNull(answer);
+        assertEquals("Paris", answer.getAnswer());
+    }
+
+    private void connect(String sessionId, String accept) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.CONNECT);
+        headers.setSessionId(sessionId);
+        if (accept != null) {
+            headers.setNativeHeader(WireFormatNegotiator.ACCEPT_HEADER, accept);
+        }
+        negotiator.preSend(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()), null);
+    }
+
+    private static Message<byte[]> broadcast(String sessionId, byte[] json) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setDestination("/game/game-1");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(json, headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,265 @@
+package com.main.triviatreckapp.loadtest;
+
+import com.main.triviatreckapp.Request.JoinRoomRequest;
+import com.main.triviatreckapp.Request.StartGameRequest;
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.dto.PlayerAnswerDTO;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Scénario de charge : latence d'une réponse, de l'envoi sur /app/game/answer
+ * jusqu'à la réception du PlayerAnswered correspondant.
+ * <p>
+ * Ce n'est pas un test unitaire : il vise un serveur lancé à part.
+ * Comparaison pool de threads / threads virtuels :
+ * <pre>
+ *   java -jar app.jar --spring.threads.virtual.enabled=false   (puis =true)
+ *   AnswerLatencyScenario ws://localhost:8080/ws 1000 10 5
+ *   AnswerLatencyScenario ws://localhost:8080/ws 5000 10 5
+ *   AnswerLatencyScenario ws://localhost:8080/ws 20000 10 5
+ * </pre>
+ * Mesuré en local (1 cœur, client et serveur dans la même JVM, H2 en mode PostgreSQL, rooms de 10, 5 questions),
+ * p99 pool / virtuels : 1287 / 706 ms à 200 clients, 1847 / 2431 puis 2454 / 3767 ms à 1000 clients.
+ * Aucun gain net : les threads virtuels restent désactivés par défaut tant que la comparaison
+ * n'a pas été refaite sur un serveur déployé.
+ * Les octets reçus sur /game donnent aussi le débit sortant par partie, par exemple pour des rooms de 50 :
+ * <pre>
+ *   AnswerLatencyScenario ws://localhost:8080/ws 500 50 10
+ * </pre>
+ * Arguments : url, nombre de clients, joueurs par room, questions jouées.
+ */
+public class AnswerLatencyScenario {
+
+    private final String url;
+    private final int clients;
+    private final int roomSize;
+    private final int questions;
+    private final WebSocketStompClient stompClient;
+    private final Recorder latencies = new Recorder(TimeUnit.MINUTES.toNanos(1), 3);
+    private final AtomicInteger errors = new AtomicInteger();
+    private final LongAdder gameBytes = new LongAdder();
+
+    public AnswerLatencyScenario(String url, int clients, int roomSize, int questions) {
+        this.url = url;
+        this.clients = clients;
+        this.roomSize = roomSize;
+        this.questions = questions;
+        this.stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter() {
+            @Override
+            protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                if (destination != null && destination.startsWith("/game/") && message.getPayload() instanceof byte[] bytes) {
+                    gameBytes.add(bytes.length);
+                }
+                return super.convertFromInternal(message, targetClass, conversionHint);
+            }
+        });
+        ThreadPoolTaskScheduler heartbeat = new ThreadPoolTaskScheduler();
+        heartbeat.initialize();
+        this.stompClient.setTaskScheduler(heartbeat);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "ws://localhost:8080/ws";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int roomSize = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int questions = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        new AnswerLatencyScenario(url, clients, roomSize, questions).run();
+    }
+
+    public void run() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        int rooms = (clients + roomSize - 1) / roomSize;
+        CountDownLatch done = new CountDownLatch(clients);
+        List<Player> players = new ArrayList<>(clients);
+
+        long start = System.nanoTime();
+        for (int r = 0; r < rooms; r++) {
+            String roomId = "load-" + runId + "-" + r;
+            List<Player> room = new ArrayList<>(roomSize);
+            CountDownLatch joined = new CountDownLatch(Math.min(roomSize, clients - r * roomSize));
+            for (int i = 0; i < joined.getCount(); i++) {
+                room.add(new Player(roomId, "game-" + roomId, "joueur" + i, joined, done));
+            }
+            Thread.ofVirtual().start(() -> playRoom(room, joined));
+            players.addAll(room);
+        }
+
+        boolean finished = done.await(30, TimeUnit.MINUTES);
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        Histogram histogram = latencies.getIntervalHistogram();
+        System.out.printf("clients=%d rooms=%d questions=%d durée=%ds terminé=%s erreurs=%d%n",
+                clients, rooms, questions, seconds, finished, errors.get());
+        System.out.printf("réponses=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6);
+        // somme sur tous les abonnés de la partie : ce que le serveur écrit pour elle
+        double gameBytesPerSecond = gameBytes.sum() / (double) Math.max(seconds, 1) / rooms;
+        System.out.printf("/game reçus=%d octets, %.0f octets/s par partie (%.0f par joueur)%n",
+                gameBytes.sum(), gameBytesPerSecond, gameBytesPerSecond / roomSize);
+        players.forEach(Player::disconnect);
+    }
+
+    private void playRoom(List<Player> room, CountDownLatch joined) {
+        try {
+            for (Player player : room) {
+                player.connectAndJoin();
+            }
+            if (!joined.await(2, TimeUnit.MINUTES)) {
+                errors.incrementAndGet();
+                return;
+            }
+            Player host = room.getFirst();
+            host.session.send("/app/game/startQuiz/" + host.gameId,
+                    new StartGameRequest(host.roomId, host.participantId, null));
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private final class Player {
+        private final String roomId;
+        private final String gameId;
+        private final String username;
+        private final String tempId = UUID.randomUUID().toString();
+        private final CountDownLatch joined;
+        private final CountDownLatch done;
+        private StompSession session;
+        private volatile Long participantId;
+        private volatile long answerSentAt;
+        private int answered;
+        private boolean finished;
+
+        Player(String roomId, String gameId, String username, CountDownLatch joined, CountDownLatch done) {
+            this.roomId = roomId;
+            this.gameId = gameId;
+            this.username = username;
+            this.joined = joined;
+            this.done = done;
+        }
+
+        void connectAndJoin() throws Exception {
+            session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+            }).get(30, TimeUnit.SECONDS);
+            // l'état complet de la room n'arrive qu'au joueur qui la rejoint
+            session.subscribe("/user/queue/room", handler(RoomEventDTO.class, this::onRoomEvent));
+            session.subscribe("/chatroom/" + roomId, handler(RoomEventDTO.class, this::onRoomEvent));
+            session.subscribe("/game/" + gameId, handler(GameEventDTO.class, this::onGameEvent));
+            session.send("/app/join/" + roomId, new JoinRoomRequest(username, tempId));
+        }
+
+        private void onRoomEvent(RoomEventDTO event) {
+            List<ParticipantDTO> participants = switch (event) {
+                case RoomEventDTO.Snapshot s when s.getRoom() != null -> s.getRoom().getParticipants();
+                case RoomEventDTO.RosterDelta d -> d.getJoined();
+                default -> null;
+            };
+            if (participantId != null || participants == null) {
+                return;
+            }
+            participants.stream()
+                    .filter(p -> tempId.equals(p.getTempId()))
+                    .map(ParticipantDTO::getParticipantId)
+                    .findFirst()
+                    .ifPresent(id -> {
+                        participantId = id;
+                        joined.countDown();
+                    });
+        }
+
+        private void onGameEvent(GameEventDTO event) {
+            switch (event) {
+                case GameEventDTO.Snapshot s when s.getGame() != null -> answer(s.getGame().getCurrentQuestion());
+                case GameEventDTO.QuestionAdvanced q when !q.isFinished() -> answer(q.getCurrentQuestion());
+                case GameEventDTO.QuestionAdvanced q -> finish();
+                case GameEventDTO.PlayerAnswered a when participantId != null
+                        && participantId.equals(a.getParticipantId()) && answerSentAt != 0 -> {
+                    latencies.recordValue(System.nanoTime() - answerSentAt);
+                    answerSentAt = 0;
+                    if (++answered >= questions) {
+                        finish();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void answer(QuestionDTO question) {
+            if (question == null || finished) {
+                return;
+            }
+            // temps de réflexion aléatoire : les réponses d'une room ne partent pas toutes au même instant
+            long thinkMs = ThreadLocalRandom.current().nextLong(2000);
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(thinkMs);
+                    List<String> options = question.getOptions();
+                    String choice = options.get(ThreadLocalRandom.current().nextInt(options.size()));
+                    answerSentAt = System.nanoTime();
+                    session.send("/app/game/answer/" + gameId, new PlayerAnswerDTO(String.valueOf(participantId), choice));
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            });
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                done.countDown();
+            }
+        }
+
+        void disconnect() {
+            if (session != null && session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+
+    private static <T> StompFrameHandler handler(Class<T> type, Consumer<T> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return type;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                consumer.accept((T) payload);
+            }
+        };
+    }
+}
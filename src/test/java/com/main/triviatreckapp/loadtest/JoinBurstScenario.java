@@ -0,0 +1,160 @@
+package com.main.triviatreckapp.loadtest;
+
+import com.main.triviatreckapp.Request.JoinRoomRequest;
+import com.main.triviatreckapp.dto.RoomEventDTO;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Scénario de charge : une classe entière rejoint la même room en quelques secondes.
+ * Mesure la latence d'arrivée (envoi sur /app/join jusqu'à la réception de son état
+ * sur /user/queue/room) et le nombre d'évènements reçus sur /chatroom pendant la vague.
+ * <p>
+ * Ce n'est pas un test unitaire : il vise un serveur lancé à part.
+ * Comparaison sans / avec regroupement des arrivées :
+ * <pre>
+ *   java -jar app.jar --quiz.rooms.join.window-ms=0   (puis =50)
+ *   JoinBurstScenario ws://localhost:8080/ws 200 3000
+ * </pre>
+ * Arguments : url, nombre d'élèves, durée de la vague d'arrivées en ms.
+ */
+public class JoinBurstScenario {
+
+    private final String url;
+    private final int students;
+    private final long spreadMs;
+    private final WebSocketStompClient stompClient;
+    private final Recorder latencies = new Recorder(TimeUnit.MINUTES.toNanos(1), 3);
+    private final AtomicLong roomEvents = new AtomicLong();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    public JoinBurstScenario(String url, int students, long spreadMs) {
+        this.url = url;
+        this.students = students;
+        this.spreadMs = spreadMs;
+        this.stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        ThreadPoolTaskScheduler heartbeat = new ThreadPoolTaskScheduler();
+        heartbeat.initialize();
+        this.stompClient.setTaskScheduler(heartbeat);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "ws://localhost:8080/ws";
+        int students = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long spreadMs = args.length > 2 ? Long.parseLong(args[2]) : 3000;
+        new JoinBurstScenario(url, students, spreadMs).run();
+    }
+
+    public void run() throws Exception {
+        String roomId = "classe-" + UUID.randomUUID().toString().substring(0, 8);
+        CountDownLatch joined = new CountDownLatch(students);
+        List<Student> classroom = new ArrayList<>(students);
+
+        // connexions d'abord : seule la vague d'arrivées est mesurée
+        for (int i = 0; i < students; i++) {
+            Student student = new Student(roomId, joined);
+            student.connect();
+            classroom.add(student);
+        }
+
+        long start = System.nanoTime();
+        for (Student student : classroom) {
+            long delayMs = (long) (Math.random() * spreadMs);
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(delayMs);
+                    student.join();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            });
+        }
+
+        boolean finished = joined.await(2, TimeUnit.MINUTES);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // les derniers évènements de liste peuvent arriver après le dernier état personnel
+        Thread.sleep(1000);
+        Histogram histogram = latencies.getIntervalHistogram();
+        System.out.printf("élèves=%d vague=%dms durée=%dms terminé=%s erreurs=%d%n",
+                students, spreadMs, ms, finished, errors.get());
+        System.out.printf("arrivée p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6);
+        System.out.printf("évènements /chatroom reçus=%d (%.1f par élève)%n",
+                roomEvents.get(), roomEvents.get() / (double) students);
+        classroom.forEach(Student::disconnect);
+    }
+
+    private final class Student {
+        private final String roomId;
+        private final String tempId = UUID.randomUUID().toString();
+        private final CountDownLatch joined;
+        private StompSession session;
+        private volatile long joinSentAt;
+
+        Student(String roomId, CountDownLatch joined) {
+            this.roomId = roomId;
+            this.joined = joined;
+        }
+
+        void connect() throws Exception {
+            session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+            }).get(30, TimeUnit.SECONDS);
+            session.subscribe("/user/queue/room", handler(event -> {
+                if (event instanceof RoomEventDTO.Snapshot && joinSentAt != 0) {
+                    latencies.recordValue(System.nanoTime() - joinSentAt);
+                    joinSentAt = 0;
+                    joined.countDown();
+                }
+            }));
+            session.subscribe("/chatroom/" + roomId, handler(event -> roomEvents.incrementAndGet()));
+        }
+
+        void join() {
+            joinSentAt = System.nanoTime();
+            session.send("/app/join/" + roomId, new JoinRoomRequest("Player", tempId));
+        }
+
+        void disconnect() {
+            if (session != null && session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+
+    private static StompFrameHandler handler(Consumer<RoomEventDTO> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return RoomEventDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                consumer.accept((RoomEventDTO) payload);
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatHistoryTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @InjectMocks
+    private ChatHistory chatHistory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chatHistory, "recentSize", 3);
+    }
+
+    private static MessageDTO message(long id) {
+        return new MessageDTO(id, "room-1", "joueur", "message " + id, Instant.now());
+    }
+
+    @Test
+    void recent_shouldLoadWindowOnce_thenKeepLastMessages() {
+        // Arrange : la base renvoie la page la plus récente, du plus récent au plus ancien
+        when(messageRepository.findPageBefore("room-1", Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(message(3), message(2), message(1)));
+
+        // Act
+        chatHistory.recent("room-1");
+        chatHistory.append(message(4));
+        chatHistory.append(message(4));
+        List<MessageDTO> recent = chatHistory.recent("room-1");
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 4L), recent.stream().map(MessageDTO::getId).toList());
+        verify(messageRepository, times(1)).findPageBefore(eq("room-1"), eq(Long.MAX_VALUE), eq(Limit.of(3)));
+    }
+
+    @Test
+    void page_shouldReturnOldestFirst_andCapLimit() {
+        // Arrange
+        when(messageRepository.findPageBefore("room-1", 10L, Limit.of(200)))
+                .thenReturn(List.of(message(9), message(8)));
+
+        // Act
+        List<MessageDTO> page = chatHistory.page("room-1", 10L, 5000);
+
+        // Assert
+        assertEquals(List.of(8L, 9L), page.stream().map(MessageDTO::getId).toList());
+    }
+}
@@ -0,0 +1,82 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.MessageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChatWriter chatWriter;
+
+    @BeforeEach
+    void setUp() {
+        // thread d'écriture non démarré : flush() écrit sur le thread du test
+        chatWriter = new ChatWriter(jdbcTemplate, 2, 256, 10, 0, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void flush_shouldInsertQueuedMessagesInOneStatement() {
+        // Arrange
+        chatWriter.enqueue(message(1));
+        chatWriter.enqueue(message(2));
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+
+        // Act
+        chatWriter.flush();
+
+        // Assert : un seul INSERT, 6 paramètres par message
+        verify(jdbcTemplate, times(1)).update(anyString(), args.capture());
+        assertEquals(12, args.getValue().length);
+        assertEquals(1L, args.getValue()[0]);
+        assertEquals(2L, args.getValue()[6]);
+    }
+
+    @Test
+    void flush_shouldRetryRowByRow_whenBatchFails() {
+        // Arrange : le lot échoue, chaque ligne passe seule
+        chatWriter.enqueue(message(1));
+        chatWriter.enqueue(message(2));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(1);
+
+        // Act
+        chatWriter.flush();
+
+        // Assert
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void enqueue_shouldReject_whenQueueIsFull() {
+        // Arrange
+        chatWriter.enqueue(message(1));
+        chatWriter.enqueue(message(2));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> chatWriter.enqueue(message(3)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static MessageDTO message(long id) {
+        return new MessageDTO(id, "room-1", "alice", "message " + id, Instant.now());
+    }
+}
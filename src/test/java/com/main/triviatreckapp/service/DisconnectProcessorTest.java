@@ -0,0 +1,71 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DisconnectProcessorTest {
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private SessionRegistry sessions;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DisconnectProcessor disconnects;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        disconnects = new DisconnectProcessor(roomService, sessions, 200, meterRegistry);
+    }
+
+    @Test
+    void reclaim_shouldKeepSeat_whenClientReturnsWithinGrace() {
+        // Arrange
+        when(sessions.scheduleLeave(eq("room-1"), eq("alice"), eq("session-1"), any(Instant.class))).thenReturn(true);
+        disconnects.onDisconnect("room-1", "alice", "session-1");
+        when(sessions.cancelLeave("room-1", "alice")).thenReturn(true);
+
+        // Act
+        boolean kept = disconnects.reclaim("room-1", "alice");
+
+        // Assert : place gardée, aucun départ
+        assertTrue(kept);
+        verifyNoInteractions(roomService);
+        assertEquals(1.0, meterRegistry.get("quiz.rooms.disconnects").counter().count());
+        assertEquals(1.0, meterRegistry.get("quiz.rooms.disconnects.reconnected").counter().count());
+    }
+
+    @Test
+    void expireLeaves_shouldApplyDueLeavesOfSameRoomInOneCall() {
+        // Arrange : coupure réseau de toute une room, et d'un joueur d'une autre
+        Map<String, Set<String>> due = new LinkedHashMap<>();
+        due.put("room-1", Set.of("alice", "bob", "carol"));
+        due.put("room-2", Set.of("dave"));
+        when(sessions.expireLeaves(any(Instant.class))).thenReturn(due);
+
+        // Act
+        disconnects.expireLeaves();
+
+        // Assert
+        verify(roomService).removeParticipantsFromRoom("room-1", Set.of("alice", "bob", "carol"));
+        verify(roomService).removeParticipantsFromRoom("room-2", Set.of("dave"));
+        verifyNoMoreInteractions(roomService);
+        assertEquals(4.0, meterRegistry.get("quiz.rooms.leave.batch.size").summary().totalAmount());
+    }
+}
@@ -0,0 +1,25 @@
+package com.main.triviatreckapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMailboxTest {
+
+    @Test
+    void post_shouldKeepDraining_whenACommandThrowsAnError() throws Exception {
+        // Arrange
+        GameMailbox mailbox = new GameMailbox();
+
+        // Act
+        mailbox.post(() -> {
+            throw new StackOverflowError();
+        });
+        String result = mailbox.call(() -> "suivante").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("suivante", result);
+    }
+}
@@ -0,0 +1,67 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameOwnershipTest {
+
+    @Test
+    void isLocal_shouldAlwaysBeTrue_whenNodeIsAlone() {
+        // Arrange
+        GameOwnership ownership = new GameOwnership(new StaticClusterMembership("0", ""), 128,
+                new SimpleMeterRegistry());
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ownership.isLocal("game-" + i));
+        }
+    }
+
+    @Test
+    void update_shouldOnlyMoveGamesToTheNewNode_whenANodeJoins() {
+        // Arrange : trois nœuds, 1000 parties
+        StaticClusterMembership membership = new StaticClusterMembership("0",
+                "0=http://a:8080,1=http://b:8080,2=http://c:8080");
+        GameOwnership ownership = new GameOwnership(membership, 128, new SimpleMeterRegistry());
+        ownership.register();
+        AtomicInteger notified = new AtomicInteger();
+        ownership.addListener(notified::incrementAndGet);
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            before.put("game-" + i, ownership.owner("game-" + i).id());
+        }
+
+        // Act
+        List<ClusterMembership.Node> members = new ArrayList<>(membership.members());
+        members.add(new ClusterMembership.Node("3", "http://d:8080"));
+        membership.update(members);
+
+        // Assert : environ un quart des parties change de nœud, toutes vers le nouveau
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = ownership.owner(entry.getKey()).id();
+            if (!owner.equals(entry.getValue())) {
+                assertEquals("3", owner);
+                moved++;
+            }
+        }
+        assertEquals(1, notified.get());
+        assertTrue(moved > 150 && moved < 350, "parties déplacées : " + moved);
+    }
+
+    @Test
+    void parse_shouldTrimEntries_andRejectEntryWithoutId() {
+        // Act & Assert
+        assertEquals(List.of(new ClusterMembership.Node("0", "http://a:8080")),
+                StaticClusterMembership.parse(" 0 = http://a:8080 ,"));
+        assertThrows(IllegalArgumentException.class, () -> StaticClusterMembership.parse("http://a:8080"));
+    }
+}
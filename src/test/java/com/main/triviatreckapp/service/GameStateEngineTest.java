@@ -0,0 +1,49 @@
+package com.main.triviatreckapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameStateEngineTest {
+
+    private final GameStatePersister persister = mock(GameStatePersister.class);
+    private final GameStateEngine engine = new GameStateEngine(persister, mock(SnapshotCache.class), 60_000);
+
+    @Test
+    void find_shouldReadDatabaseOnce_forUnknownOrFinishedGame() {
+        // Arrange
+        GameState finished = new GameState("game-2", 2L, "room-2", List.of());
+        finished.setFinished(true);
+        when(persister.load("unknown")).thenReturn(Optional.empty());
+        when(persister.load("game-2")).thenReturn(Optional.of(finished));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.find("unknown").isEmpty());
+            assertSame(finished, engine.find("game-2").orElseThrow());
+        }
+
+        // Assert : trames tardives servies sans relecture, la partie n'est pas remise en cours
+        verify(persister).load("unknown");
+        verify(persister).load("game-2");
+        assertTrue(engine.loadedGameIds().isEmpty());
+    }
+
+    @Test
+    void register_shouldReplaceParkedAbsence_whenGameIsCreated() {
+        // Arrange
+        when(persister.load("game-1")).thenReturn(Optional.empty());
+        engine.find("game-1");
+        GameState created = new GameState("game-1", 1L, "room-1", List.of());
+
+        // Act
+        engine.register(created);
+
+        // Assert
+        assertSame(created, engine.find("game-1").orElseThrow());
+    }
+}
@@ -0,0 +1,54 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import com.main.triviatreckapp.entities.Question;
+import com.main.triviatreckapp.entities.QuizGame;
+import com.main.triviatreckapp.entities.Room;
+import com.main.triviatreckapp.repository.QuizGameRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameStatePersisterTest {
+
+    @Test
+    void fromEntity_shouldKeepQuestionsFrozenAtStart_whenPackChangesMeanwhile() {
+        // Arrange : partie lancée sur la v1, la question est corrigée dans la v2
+        QuestionCatalogService catalogs = mock(QuestionCatalogService.class);
+        GameStatePersister persister = new GameStatePersister(mock(QuizGameRepository.class), catalogs,
+                new ObjectMapper());
+        QuizGame game = new QuizGame();
+        game.setGameId("game-1");
+        Room room = new Room();
+        room.setRoomId("room-1");
+        game.setRoom(room);
+        game.addQuestion(question("Capitale de l'Australie ?", "Canberra"));
+        persister.freezeQuestions(game, QuestionCatalog.of(1, List.of(question("Capitale de l'Australie ?", "Canberra"))));
+        when(catalogs.current()).thenReturn(QuestionCatalog.of(2, List.of(question("Capitale du Canada ?", "Ottawa"))));
+
+        // Act
+        GameState recovered = persister.fromEntity(game);
+
+        // Assert
+        QuestionDTO first = recovered.toDTO().getQuestions().getFirst();
+        assertEquals("Capitale de l'Australie ?", first.getQuestion());
+        assertEquals("Canberra", first.getCorrectAnswer());
+        verifyNoInteractions(catalogs);
+    }
+
+    private static Question question(String text, String answer) {
+        Question question = new Question();
+        question.setId(1L);
+        question.setQuestion(text);
+        question.setDifficulty("easy");
+        question.setCategory("Géographie");
+        question.setCategoryId("GEOGRAPHIE");
+        question.setCorrectAnswer(answer);
+        question.setIncorrectAnswers(List.of("a", "b", "c"));
+        return question;
+    }
+}
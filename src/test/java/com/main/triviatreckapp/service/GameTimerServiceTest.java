@@ -0,0 +1,62 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTimerServiceTest {
+
+    private GameTimerService timers;
+
+    @BeforeEach
+    void setUp() {
+        // petite roue : 8 cases de 10 ms, une échéance à 200 ms fait plusieurs tours
+        timers = new GameTimerService(10, 8, new SimpleMeterRegistry());
+        timers.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timers.stop();
+    }
+
+    @Test
+    void schedule_shouldRunTaskAfterDelay() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // Act
+        timers.schedule(Duration.ofMillis(200), t -> fired.countDown());
+
+        // Assert
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void cancel_shouldPreventTaskFromRunning() throws InterruptedException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch other = new CountDownLatch(1);
+        GameTimerService.Timeout timeout = timers.schedule(Duration.ofMillis(50), t -> runs.incrementAndGet());
+
+        // Act
+        assertTrue(timeout.cancel());
+        timers.schedule(Duration.ofMillis(100), t -> other.countDown());
+
+        // Assert
+        assertTrue(other.await(2, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel());
+    }
+}
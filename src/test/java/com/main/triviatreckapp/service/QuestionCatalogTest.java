@@ -0,0 +1,117 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.entities.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionCatalogTest {
+
+    private QuestionCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        List<Question> questions = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            String categoryId = id % 2 == 0 ? "HISTOIRE" : "SCIENCE";
+            String difficulty = id % 3 == 0 ? "hard" : "easy";
+            questions.add(question(id, difficulty, categoryId, id <= 10 ? "histoire.json" : "Questions.json"));
+        }
+        catalog = QuestionCatalog.of(1, questions);
+    }
+
+    private static Question question(long id, String difficulty, String categoryId, String pack) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestion("Question " + id);
+        question.setDifficulty(difficulty);
+        question.setCategory(categoryId);
+        question.setCategoryId(categoryId);
+        question.setCorrectAnswer("bonne");
+        question.setIncorrectAnswers(List.of("a", "b", "c"));
+        question.setPack(pack);
+        return question;
+    }
+
+    @Test
+    void sample_shouldReturnDistinctIds() {
+        // Act
+        long[] ids = catalog.sample(null, null, 20, new Random(42));
+
+        // Assert
+        assertEquals(20, ids.length);
+        assertEquals(20, LongStream.of(ids).distinct().count());
+    }
+
+    @Test
+    void sample_shouldReturnWholePool_whenCountExceedsPoolSize() {
+        // Act
+        long[] ids = catalog.sample("HISTOIRE", "hard", 20, new Random(42));
+
+        // Assert : ids pairs et multiples de 3 -> 6, 12, 18, 24, 30
+        assertEquals(Set.of(6L, 12L, 18L, 24L, 30L),
+                new HashSet<>(LongStream.of(ids).boxed().toList()));
+    }
+
+    @Test
+    void sample_shouldReturnEmpty_whenPoolIsUnknown() {
+        // Act
+        long[] ids = catalog.sample("SPORT", null, 5, new Random(42));
+
+        // Assert
+        assertEquals(0, ids.length);
+    }
+
+    @Test
+    void compose_shouldFollowSlotsWithoutDuplicates() {
+        // Arrange : 10 HISTOIRE easy existent, la 2e ligne recouvre la 1re
+        List<QuestionCatalog.Slot> slots = List.of(
+                new QuestionCatalog.Slot("HISTOIRE", "easy", 5),
+                new QuestionCatalog.Slot(null, "easy", 15),
+                new QuestionCatalog.Slot(null, "hard", 3));
+
+        // Act
+        long[] ids = catalog.compose(slots, new Random(7));
+
+        // Assert
+        assertEquals(23, ids.length);
+        assertEquals(23, LongStream.of(ids).distinct().count());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ids[i] % 2 == 0 && ids[i] % 3 != 0);
+        }
+        for (int i = 20; i < 23; i++) {
+            assertEquals(0, ids[i] % 3);
+        }
+    }
+
+    @Test
+    void compose_shouldStopAtPoolSize_whenSlotCannotBeFilled() {
+        // Act : 20 questions easy seulement
+        long[] ids = catalog.compose(List.of(new QuestionCatalog.Slot(null, "easy", 25)), new Random(7));
+
+        // Assert
+        assertEquals(20, ids.length);
+    }
+
+    @Test
+    void findById_shouldReturnEntryWithShuffledOptions() {
+        // Act
+        Optional<QuestionCatalog.Entry> entry = catalog.findById(7);
+
+        // Assert
+        assertTrue(entry.isPresent());
+        assertEquals("Question 7", entry.get().question());
+        assertEquals(Set.of("bonne", "a", "b", "c"), new HashSet<>(entry.get().toDTO().getOptions()));
+        assertTrue(catalog.findById(99).isEmpty());
+    }
+
+    @Test
+    void countByPack_shouldCountQuestionsPerPack() {
+        // Assert
+        assertEquals(Map.of("histoire.json", 10, "Questions.json", 20), catalog.countByPack());
+    }
+}
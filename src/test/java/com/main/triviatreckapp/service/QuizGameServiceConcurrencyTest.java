@@ -0,0 +1,117 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.GameEventDTO;
+import com.main.triviatreckapp.dto.PlayerAnswerDTO;
+import com.main.triviatreckapp.dto.QuestionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 200 joueurs répondent au même instant : la boîte aux lettres de la partie
+ * doit appliquer chaque réponse une seule fois, sans trou dans la séquence d'évènements.
+ */
+@ExtendWith(MockitoExtension.class)
+class QuizGameServiceConcurrencyTest {
+
+    private static final int PLAYERS = 200;
+
+    @Mock
+    private GameStateEngine gameEngine;
+
+    @Mock
+    private ScoreJournal scoreJournal;
+
+    @Mock
+    private GameEventPublisher eventPublisher;
+
+    @Mock
+    private GameTimerService gameTimers;
+
+    @InjectMocks
+    private QuizGameService quizGameService;
+
+    private GameState state;
+    private final List<GameEventDTO> events = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        QuestionDTO question = new QuestionDTO(1L, "Question 1", "easy", "Histoire", "HISTOIRE",
+                "bonne", List.of("a", "b", "c"), List.of("bonne", "a", "b", "c"));
+        state = new GameState("game-1", 1L, "room-1", List.of(question));
+        for (long id = 1; id <= PLAYERS; id++) {
+            state.addParticipant(id, "joueur" + id);
+        }
+        when(gameEngine.find("game-1")).thenReturn(Optional.of(state));
+        doAnswer(inv -> {
+            GameEventDTO event = inv.getArgument(1);
+            event.setSeq(state.nextSeq());
+            events.add(event);
+            return null;
+        }).when(eventPublisher).publish(same(state), any());
+    }
+
+    @Test
+    void processAnswerDTO_shouldApplyEveryAnswerOnce_whenAllPlayersAnswerTogether() throws InterruptedException {
+        // Arrange : les joueurs pairs ont la bonne réponse
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(PLAYERS);
+        for (long id = 1; id <= PLAYERS; id++) {
+            PlayerAnswerDTO answer = new PlayerAnswerDTO(String.valueOf(id), id % 2 == 0 ? "bonne" : "a");
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    go.await();
+                    quizGameService.processAnswerDTO("game-1", answer);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        // Act
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // passe après toutes les réponses déposées
+        state.call(() -> null).join();
+
+        // Assert
+        assertTrue(state.allParticipantsAnswered());
+        assertEquals(PLAYERS / 2, state.getCorrectAnswerOrder().size());
+        assertEquals(PLAYERS / 2, new HashSet<>(state.getCorrectAnswerOrder()).size());
+        assertEquals(PLAYERS / 2, state.getScores().size());
+        assertEquals(10, state.getScores().get(state.getCorrectAnswerOrder().getFirst()));
+        verify(scoreJournal, times(PLAYERS / 2)).append(eq(1L), anyString(), anyInt(), anyInt());
+
+        // un ScoreChanged par bonne réponse, un PlayerAnswered par joueur, numérotés sans trou
+        assertEquals(PLAYERS + PLAYERS / 2, events.size());
+        assertArrayEquals(LongStream.rangeClosed(1, events.size()).toArray(),
+                events.stream().mapToLong(GameEventDTO::getSeq).toArray());
+        assertEquals(PLAYERS, events.stream().filter(GameEventDTO.PlayerAnswered.class::isInstance).count());
+    }
+
+    @Test
+    void processAnswerDTO_shouldKeepSubmissionOrder_forASingleProducer() {
+        // Act : un seul producteur, réponses correctes dans l'ordre 1..200
+        for (long id = 1; id <= PLAYERS; id++) {
+            quizGameService.processAnswerDTO("game-1", new PlayerAnswerDTO(String.valueOf(id), "bonne"));
+        }
+        state.call(() -> null).join();
+
+        // Assert
+        List<String> expected = LongStream.rangeClosed(1, PLAYERS).mapToObj(id -> "joueur" + id).toList();
+        assertEquals(expected, state.getCorrectAnswerOrder());
+    }
+}
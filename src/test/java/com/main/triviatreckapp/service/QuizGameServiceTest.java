@@ -0,0 +1,81 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.Request.QuestionSlot;
+import com.main.triviatreckapp.entities.Participant;
+import com.main.triviatreckapp.entities.QuizGame;
+import com.main.triviatreckapp.entities.Room;
+import com.main.triviatreckapp.repository.QuizGameRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuizGameServiceTest {
+
+    @Mock
+    private QuestionCatalogService questionCatalogService;
+
+    @Mock
+    private QuizGameRepository gameRepository;
+
+    @Mock
+    private GameStateEngine gameEngine;
+
+    @InjectMocks
+    private QuizGameService quizGameService;
+
+    @Test
+    void createGame_shouldRejectComposition_whenCountsExceedMaximum() {
+        // Arrange
+        ReflectionTestUtils.setField(quizGameService, "maxQuestionsPerGame", 100);
+        List<QuestionSlot> tooLarge = List.of(new QuestionSlot(null, null, Integer.MAX_VALUE));
+        List<QuestionSlot> overflowing = List.of(new QuestionSlot("HISTOIRE", null, 60),
+                new QuestionSlot(null, "easy", 60));
+        List<QuestionSlot> negative = List.of(new QuestionSlot(null, null, -1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> quizGameService.createGame("game-1", null, tooLarge));
+        assertThrows(IllegalArgumentException.class, () -> quizGameService.createGame("game-1", null, overflowing));
+        assertThrows(IllegalArgumentException.class, () -> quizGameService.createGame("game-1", null, negative));
+        verifyNoInteractions(questionCatalogService);
+    }
+
+    @Test
+    void addParticipant_shouldTouchGameStateOnlyAfterCommit() {
+        // Arrange
+        Participant participant = new Participant("room-1", "alice", 0);
+        participant.setId(7L);
+        Room room = new Room();
+        room.setRoomId("room-1");
+        room.addParticipant(participant);
+        QuizGame game = new QuizGame();
+        game.setGameId("game-1");
+        game.setRoom(room);
+        when(gameRepository.findByGameId("game-1")).thenReturn(Optional.of(game));
+        when(gameRepository.save(any(QuizGame.class))).thenReturn(game);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            quizGameService.addParticipant("game-1", 7L);
+
+            // Assert : une transaction annulée ne laisse pas le joueur dans l'état en mémoire
+            verifyNoInteractions(gameEngine);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(gameEngine).findLoaded("game-1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
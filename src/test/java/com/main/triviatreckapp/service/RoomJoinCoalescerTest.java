@@ -0,0 +1,75 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.RoomDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RoomJoinCoalescerTest {
+
+    private final RoomService roomService = mock(RoomService.class);
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    @BeforeEach
+    void setUp() {
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void join_shouldTreatJoinsOfTheSameWindowInOneCall() throws Exception {
+        // Arrange
+        RoomJoinCoalescer coalescer = new RoomJoinCoalescer(roomService, scheduler, 50, 200, new SimpleMeterRegistry());
+        RoomDTO room = new RoomDTO("room-1", "game-1", false);
+        when(roomService.addUsersToRoom(eq("room-1"), anyList())).thenReturn(room);
+
+        // Act : 20 arrivées dans la même fenêtre
+        List<CompletableFuture<RoomDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(coalescer.join("room-1", "joueur" + i, "t" + i));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RoomService.Joiner>> joiners = ArgumentCaptor.forClass(List.class);
+        verify(roomService, times(1)).addUsersToRoom(eq("room-1"), joiners.capture());
+        assertEquals(20, joiners.getValue().size());
+        assertEquals("joueur0", joiners.getValue().getFirst().username());
+        assertSame(room, results.getLast().get());
+    }
+
+    @Test
+    void join_shouldCloseBatchEarly_whenFull() throws Exception {
+        // Arrange : fenêtre longue, lot de 5
+        RoomJoinCoalescer coalescer = new RoomJoinCoalescer(roomService, scheduler, 60_000, 5, new SimpleMeterRegistry());
+        when(roomService.addUsersToRoom(eq("room-1"), anyList())).thenReturn(new RoomDTO("room-1", null, false));
+
+        // Act
+        List<CompletableFuture<RoomDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(coalescer.join("room-1", "joueur" + i, "t" + i));
+        }
+
+        // Assert : traité sans attendre la fin de la fenêtre
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        verify(roomService, times(1)).addUsersToRoom(eq("room-1"), anyList());
+    }
+}
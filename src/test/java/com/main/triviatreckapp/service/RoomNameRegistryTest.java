@@ -0,0 +1,72 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.ParticipantDTO;
+import com.main.triviatreckapp.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomNameRegistryTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @InjectMocks
+    private RoomNameRegistry registry;
+
+    @Test
+    void reserve_shouldGiveDistinctNames_whenManyPlayersJoinTogether() throws InterruptedException {
+        // Arrange : une classe de 300 « Player » qui rejoignent en même temps
+        when(roomRepository.findRoster("room-1")).thenReturn(List.of(new ParticipantDTO(1L, "Player")));
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    go.await();
+                    names.add(registry.reserve("room-1", "Player"));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        // Act
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert : Player(2) à Player(301), sans doublon
+        assertEquals(300, names.size());
+        assertFalse(names.contains("Player"));
+        assertTrue(names.contains("Player(2)"));
+        assertTrue(names.contains("Player(301)"));
+    }
+
+    @Test
+    void release_shouldFreeBaseName_andLoadRosterOnlyOnce() {
+        // Arrange
+        when(roomRepository.findRoster("room-1")).thenReturn(List.of());
+        registry.reserve("room-1", "alice");
+
+        // Act
+        registry.release("room-1", "alice");
+        String again = registry.reserve("room-1", "alice");
+
+        // Assert
+        assertEquals("alice", again);
+        verify(roomRepository, times(1)).findRoster("room-1");
+    }
+}
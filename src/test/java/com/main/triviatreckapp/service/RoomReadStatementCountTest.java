@@ -0,0 +1,107 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.dto.RoomDTO;
+import com.main.triviatreckapp.entities.Participant;
+import com.main.triviatreckapp.entities.Room;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nombre de requêtes SQL des lectures faites à chaque opération STOMP.
+ * Une régression (retour au chargement de l'entité Room et de sa partie) fait échouer ces tests.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({RoomService.class, ChatHistory.class, RoomNameRegistry.class})
+class RoomReadStatementCountTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private ChatHistory chatHistory;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private ChatService chatService;
+
+    @MockitoBean
+    private RoomEventPublisher roomEvents;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Room room = new Room();
+        room.setRoomId("room-1");
+        room.addParticipant(new Participant("alice", 0));
+        room.addParticipant(new Participant("bob", 0));
+        entityManager.persist(room);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void join_shouldReadUsernamesOnce() {
+        // Act
+        String first = roomService.reserveUserName("room-1", "alice");
+        String second = roomService.reserveUserName("room-1", "alice");
+
+        // Assert : pseudos chargés au premier accès, puis registre en mémoire
+        assertEquals("alice(2)", first);
+        assertEquals("alice(3)", second);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void subscribe_shouldBuildSnapshotFromTwoProjections_whenHistoryIsWarm() {
+        // Arrange : fenêtre de messages déjà en mémoire
+        chatHistory.recent("room-1");
+        statistics.clear();
+
+        // Act
+        RoomDTO room = roomService.findRoomDTO("room-1").orElseThrow();
+
+        // Assert : en-tête + participants
+        assertEquals(2, room.getParticipants().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void subscribe_shouldIssueOneStatement_whenRoomDoesNotExist() {
+        // Act & Assert
+        assertTrue(roomService.findRoomDTO("absente").isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void disconnect_shouldCheckMembershipInOneStatement() {
+        // Act & Assert
+        assertTrue(roomService.isParticipant("room-1", "bob"));
+        assertFalse(roomService.isParticipant("room-1", "carol"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -1,5 +1,7 @@
 package com.main.triviatreckapp.service;
 
+import com.main.triviatreckapp.dto.MessageDTO;
+import com.main.triviatreckapp.dto.ParticipantDTO;
 import com.main.triviatreckapp.dto.RoomDTO;
 import com.main.triviatreckapp.entities.Message;
 import com.main.triviatreckapp.entities.Participant;
@@ -13,15 +15,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -38,6 +45,15 @@ class RoomServiceTest {
     @Mock
     private ParticipantRepository participantRepository;
 
+    @Mock
+    private ChatHistory chatHistory;
+
+    @Mock
+    private RoomEventPublisher roomEvents;
+
+    @Mock
+    private RoomNameRegistry roomNameRegistry;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -142,6 +158,31 @@ class RoomServiceTest {
 
         // Assert
         verify(roomRepository).deleteByRoomId(roomId);
+        verify(chatHistory).evict(roomId);
+    }
+
+    @Test
+    void getMessages_shouldReturnHistoryPage() {
+        // Arrange
+        List<MessageDTO> page = List.of(MessageDTO.fromEntity(testMessage));
+        when(roomRepository.existsByRoomId(roomId)).thenReturn(true);
+        when(chatHistory.page(roomId, 10L, 20)).thenReturn(page);
+
+        // Act
+        List<MessageDTO> result = roomService.getMessages(roomId, 10L, 20);
+
+        // Assert
+        assertEquals(page, result);
+    }
+
+    @Test
+    void getMessages_shouldThrowException_whenRoomDoesNotExist() {
+        // Arrange
+        when(roomRepository.existsByRoomId(roomId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> roomService.getMessages(roomId, null, 20));
+        verify(chatHistory, never()).page(anyString(), any(), anyInt());
     }
 
     @Test
@@ -216,7 +257,7 @@ class RoomServiceTest {
     void convertRoomToDTO_shouldConvertRoomToDTO() {
         // Arrange
         testRoom.addParticipant(testParticipant);
-        testRoom.getMessages().add(testMessage);
+        when(chatHistory.recent(roomId)).thenReturn(List.of(MessageDTO.fromEntity(testMessage)));
         QuizGame quizGame = new QuizGame();
         String gameId = UUID.randomUUID().toString();
         quizGame.setGameId(gameId);
@@ -232,35 +273,22 @@ class RoomServiceTest {
         assertEquals(username, result.getParticipants().getFirst().getUsername());
         assertEquals(1, result.getMessages().size());
         assertEquals("Test message", result.getMessages().getFirst().getContent());
+        assertEquals(1L, result.getMessages().getFirst().getId());
         assertEquals(gameId, result.getGameId());
         assertFalse(result.isActiveGame());
     }
 
     @Test
-    void getUniqueUserName_shouldReturnOriginalName_whenNoConflict() {
-        // Arrange
-        when(roomRepository.findByRoomId(roomId)).thenReturn(Optional.of(testRoom));
-
-        // Act
-        String result = roomService.getUniqueUserName(roomId, "newUser");
-
-        // Assert
-        assertEquals("newUser", result);
-        verify(roomRepository).findByRoomId(roomId);
-    }
-
-    @Test
-    void getUniqueUserName_shouldReturnModifiedName_whenConflictExists() {
+    void reserveUserName_shouldDelegateToRegistry() {
         // Arrange
-        testRoom.addParticipant(testParticipant);
-        when(roomRepository.findByRoomId(roomId)).thenReturn(Optional.of(testRoom));
+        when(roomNameRegistry.reserve(roomId, username)).thenReturn(username + "(2)");
 
         // Act
-        String result = roomService.getUniqueUserName(roomId, username);
+        String result = roomService.reserveUserName(roomId, username);
 
         // Assert
         assertEquals(username + "(2)", result);
-        verify(roomRepository).findByRoomId(roomId);
+        verify(roomRepository, never()).findByRoomId(anyString());
     }
 
     @Test
@@ -268,9 +296,9 @@ class RoomServiceTest {
         // Arrange
         String tempUuid = UUID.randomUUID().toString();
         when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
-        when(participantRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(participantRepository.findByRoomIdAndUsernameIn(eq(roomId), anyCollection())).thenReturn(List.of());
         when(participantRepository.save(any(Participant.class))).thenReturn(testParticipant);
-        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(testMessage);
+        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(MessageDTO.fromEntity(testMessage));
         when(roomRepository.save(any(Room.class))).thenReturn(testRoom);
 
         // Act
@@ -283,7 +311,7 @@ class RoomServiceTest {
         assertEquals(username, result.getParticipants().getFirst().getUsername());
         assertEquals(tempUuid, result.getParticipants().getFirst().getTempId());
         verify(roomRepository).findByRoomIdForUpdate(roomId);
-        verify(participantRepository).findByUsername(username);
+        verify(participantRepository).findByRoomIdAndUsernameIn(eq(roomId), anyCollection());
         verify(participantRepository).save(any(Participant.class));
         verify(chatService).saveMessage(eq(roomId), eq("SYSTEM"), anyString());
         verify(roomRepository).save(testRoom);
@@ -295,9 +323,9 @@ class RoomServiceTest {
         String tempUuid = UUID.randomUUID().toString();
         when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.empty());
         when(roomRepository.save(any(Room.class))).thenReturn(testRoom);
-        when(participantRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(participantRepository.findByRoomIdAndUsernameIn(eq(roomId), anyCollection())).thenReturn(List.of());
         when(participantRepository.save(any(Participant.class))).thenReturn(testParticipant);
-        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(testMessage);
+        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(MessageDTO.fromEntity(testMessage));
 
         // Act
         RoomDTO result = roomService.addUserToRoom(roomId, username, tempUuid);
@@ -310,31 +338,51 @@ class RoomServiceTest {
         assertEquals(tempUuid, result.getParticipants().getFirst().getTempId());
         verify(roomRepository).findByRoomIdForUpdate(roomId);
         verify(roomRepository, times(2)).save(any(Room.class));
-        verify(participantRepository).findByUsername(username);
+        verify(participantRepository).findByRoomIdAndUsernameIn(eq(roomId), anyCollection());
         verify(participantRepository).save(any(Participant.class));
         verify(chatService).saveMessage(eq(roomId), eq("SYSTEM"), anyString());
     }
 
     @Test
-    void submitMessageToRoom_shouldAddMessageToRoom() {
+    void addUsersToRoom_shouldLockOnce_andSendOneMessageAndOneDelta() {
+        // Arrange
+        when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
+        when(participantRepository.findByRoomIdAndUsernameIn(eq(roomId), anyCollection())).thenReturn(List.of());
+        when(participantRepository.save(any(Participant.class))).thenAnswer(inv -> inv.getArgument(0));
+        List<RoomService.Joiner> joiners = List.of(
+                new RoomService.Joiner("alice", "t1"),
+                new RoomService.Joiner("bob", "t2"),
+                new RoomService.Joiner("carol", "t3"));
+
+        // Act
+        RoomDTO result = roomService.addUsersToRoom(roomId, joiners);
+
+        // Assert
+        assertEquals(3, result.getParticipants().size());
+        assertEquals("t2", result.getParticipants().get(1).getTempId());
+        verify(roomRepository, times(1)).findByRoomIdForUpdate(roomId);
+        verify(roomRepository, times(1)).save(testRoom);
+        verify(chatService, times(1)).saveMessage(roomId, "SYSTEM", "3 joueurs ont rejoint la room");
+        verify(roomEvents, times(1)).rosterDelta(eq(roomId), argThat(joined -> joined.size() == 3), eq(List.of()));
+    }
+
+    @Test
+    void submitMessageToRoom_shouldOnlySaveMessage() {
         // Arrange
         Message newMessage = new Message();
         newMessage.setSender(username);
         newMessage.setContent("New message");
 
-        when(roomRepository.findByRoomId(roomId)).thenReturn(Optional.of(testRoom));
-        when(chatService.saveMessage(roomId, username, "New message")).thenReturn(newMessage);
-        when(roomRepository.save(testRoom)).thenReturn(testRoom);
+        when(roomRepository.existsByRoomId(roomId)).thenReturn(true);
+        when(chatService.saveMessage(roomId, username, "New message")).thenReturn(MessageDTO.fromEntity(newMessage));
 
         // Act
-        RoomDTO result = roomService.submitMessageToRoom(roomId, newMessage);
+        roomService.submitMessageToRoom(roomId, newMessage);
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(roomId, result.getRoomId());
-        verify(roomRepository).findByRoomId(roomId);
+        // Assert : ni la room ni ses collections ne sont rechargées ou réécrites
         verify(chatService).saveMessage(roomId, username, "New message");
-        verify(roomRepository).save(testRoom);
+        verify(roomRepository, never()).findByRoomId(anyString());
+        verify(roomRepository, never()).save(any(Room.class));
     }
 
     @Test
@@ -344,11 +392,11 @@ class RoomServiceTest {
         newMessage.setSender(username);
         newMessage.setContent("New message");
 
-        when(roomRepository.findByRoomId(anyString())).thenReturn(Optional.empty());
+        when(roomRepository.existsByRoomId(anyString())).thenReturn(false);
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> roomService.submitMessageToRoom("non-existent-room", newMessage));
-        verify(roomRepository).findByRoomId("non-existent-room");
+        verify(roomRepository).existsByRoomId("non-existent-room");
         verify(chatService, never()).saveMessage(anyString(), anyString(), anyString());
         verify(roomRepository, never()).save(any(Room.class));
     }
@@ -366,7 +414,7 @@ class RoomServiceTest {
         testRoom.addParticipant(secondParticipant);
 
         when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
-        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(testMessage);
+        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(MessageDTO.fromEntity(testMessage));
         when(roomRepository.save(any(Room.class))).thenReturn(testRoom);
 
         // Act
@@ -380,15 +428,55 @@ class RoomServiceTest {
         verify(roomRepository).findByRoomIdForUpdate(roomId);
         verify(chatService).saveMessage(eq(roomId), eq("SYSTEM"), anyString());
         verify(roomRepository).save(testRoom);
+        verify(roomEvents).rosterDelta(eq(roomId), eq(List.of()), argThat(left -> left.size() == 1));
         verify(roomRepository, never()).deleteByRoomId(anyString());
     }
 
+    @Test
+    void addUsersToRoom_shouldInsertNewRow_whenNameIsStillSeated() {
+        // Arrange : le registre a laissé passer un pseudo déjà assis dans la room
+        testRoom.addParticipant(testParticipant);
+        when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
+        when(participantRepository.findByRoomIdAndUsernameIn(eq(roomId), anyCollection()))
+                .thenReturn(List.of(testParticipant));
+        when(participantRepository.save(any(Participant.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_participants_room_username"));
+
+        // Act & Assert : la contrainte unique refuse l'arrivée au lieu de partager la ligne
+        assertThrows(DataIntegrityViolationException.class,
+                () -> roomService.addUsersToRoom(roomId, List.of(new RoomService.Joiner(username, "t1"))));
+        assertEquals(1, testRoom.getParticipants().size());
+    }
+
+    @Test
+    void removeParticipantsFromRoom_shouldReleaseNamesOnlyAfterCommit() {
+        // Arrange
+        testRoom.addParticipant(testParticipant);
+        Participant second = new Participant();
+        second.setId(2L);
+        second.setUsername("secondUser");
+        testRoom.addParticipant(second);
+        when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            roomService.removeParticipantsFromRoom(roomId, List.of(username));
+
+            // Assert : rien n'est libéré avant la fin de la transaction
+            verify(roomNameRegistry, never()).release(anyString(), anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(roomNameRegistry).release(roomId, username);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void removeParticipantAndCheckRoomStatus_shouldDeleteRoomWhenEmpty() {
         // Arrange
         testRoom.addParticipant(testParticipant);
         when(roomRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(testRoom));
-        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(testMessage);
+        when(chatService.saveMessage(eq(roomId), eq("SYSTEM"), anyString())).thenReturn(MessageDTO.fromEntity(testMessage));
         doNothing().when(roomRepository).deleteByRoomId(roomId);
 
         // Act
@@ -421,24 +509,28 @@ class RoomServiceTest {
     @Test
     void getRoomDTO_shouldReturnRoomDTO_whenRoomExists() {
         // Arrange
-        when(roomRepository.findByRoomId(roomId)).thenReturn(Optional.of(testRoom));
+        when(roomRepository.findHeader(roomId)).thenReturn(Optional.of(new RoomDTO(roomId, null, false)));
+        when(roomRepository.findRoster(roomId)).thenReturn(List.of(new ParticipantDTO(1L, username)));
 
         // Act
         RoomDTO result = roomService.getRoomDTO(roomId);
 
-        // Assert
+        // Assert : projections seules, l'entité Room n'est pas chargée
         assertNotNull(result);
         assertEquals(roomId, result.getRoomId());
-        verify(roomRepository).findByRoomId(roomId);
+        assertEquals(1, result.getParticipants().size());
+        assertNotNull(result.getGameId());
+        verify(roomRepository, never()).findByRoomId(anyString());
     }
 
     @Test
     void getRoomDTO_shouldThrowException_whenRoomDoesNotExist() {
         // Arrange
-        when(roomRepository.findByRoomId(anyString())).thenReturn(Optional.empty());
+        when(roomRepository.findHeader(anyString())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> roomService.getRoomDTO("non-existent-room"));
-        verify(roomRepository).findByRoomId("non-existent-room");
+        verify(roomRepository).findHeader("non-existent-room");
+        verify(roomRepository, never()).findRoster(anyString());
     }
 }
@@ -0,0 +1,47 @@
+package com.main.triviatreckapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScoreJournalTest {
+
+    @Test
+    void flush_shouldKeepNewerTotal_whenFailedBatchIsRetried() {
+        // Arrange : le premier lot échoue, un total plus récent arrive entre-temps
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("base indisponible"))
+                .thenReturn(new int[]{1, 1});
+        ScoreJournal journal = new ScoreJournal(jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "maxBatchSize", 500);
+        journal.append(1L, "alice", 10, 10);
+        journal.append(1L, "bob", 5, 5);
+        assertDoesNotThrow(journal::flush);
+        journal.append(1L, "alice", 10, 20);
+
+        // Act
+        journal.flush();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        List<Object[]> retried = rows.getAllValues().get(1).stream()
+                .sorted(Comparator.comparing(row -> (String) row[1]))
+                .toList();
+        assertEquals(2, retried.size());
+        assertArrayEquals(new Object[]{1L, "alice", 20, 1L}, retried.get(0));
+        assertArrayEquals(new Object[]{1L, "bob", 5, 1L}, retried.get(1));
+    }
+}
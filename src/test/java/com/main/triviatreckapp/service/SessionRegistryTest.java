@@ -0,0 +1,87 @@
+package com.main.triviatreckapp.service;
+
+import com.main.triviatreckapp.repository.RoomSeatRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "security.jwt.secret-key=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+        "quiz.rooms.resume.token-ttl-ms=60000"
+})
+@Import({SessionRegistry.class, SimpleMeterRegistry.class})
+class SessionRegistryTest {
+
+    @Autowired
+    private SessionRegistry sessions;
+
+    @Autowired
+    private RoomSeatRepository seats;
+
+    @Test
+    void resume_shouldMoveSeatToNewSession_andRotateToken() {
+        // Arrange
+        String token = sessions.open("room-1", "alice", 7L, "session-1");
+
+        // Act
+        SessionRegistry.Seat seat = sessions.resolve(token).orElseThrow();
+        Optional<String> next = sessions.resume(seat, "session-2");
+
+        // Assert : l'ancienne session ne tient plus la place, l'ancien jeton est refusé
+        assertEquals(7L, seat.participantId());
+        assertTrue(next.isPresent());
+        assertFalse(sessions.scheduleLeave("room-1", "alice", "session-1", Instant.now()));
+        assertTrue(sessions.resolve(token).isEmpty());
+        assertEquals("alice", sessions.resolve(next.get()).orElseThrow().username());
+    }
+
+    @Test
+    void resolve_shouldReject_whenSeatClosedOrTokenForged() {
+        // Arrange
+        String token = sessions.open("room-1", "alice", 7L, "session-1");
+        SessionRegistry other = new SessionRegistry(Base64.getEncoder()
+                .encodeToString("fedcba9876543210fedcba9876543210".getBytes()), 60_000, seats, new SimpleMeterRegistry());
+        String forged = other.open("room-1", "mallory", 8L, "session-x");
+
+        // Act
+        Optional<SessionRegistry.Seat> fromForged = sessions.resolve(forged);
+        sessions.close("room-1", "alice");
+
+        // Assert
+        assertTrue(fromForged.isEmpty());
+        assertTrue(sessions.resolve(token).isEmpty());
+        assertTrue(sessions.resolve("pas-un-jeton").isEmpty());
+    }
+
+    @Test
+    void expireLeaves_shouldCloseOnlySeatsStillDue_andOnlyOnce() {
+        // Arrange : deux joueurs coupés, l'un revient avant la fin du délai (sur n'importe quel nœud)
+        Instant now = Instant.now();
+        sessions.open("room-1", "alice", 7L, "session-1");
+        sessions.open("room-1", "bob", 8L, "session-2");
+        sessions.scheduleLeave("room-1", "alice", "session-1", now.minusSeconds(1));
+        sessions.scheduleLeave("room-1", "bob", "session-2", now.minusSeconds(1));
+        assertTrue(sessions.cancelLeave("room-1", "bob"));
+
+        // Act
+        Map<String, Set<String>> first = sessions.expireLeaves(now);
+        Map<String, Set<String>> second = sessions.expireLeaves(now);
+
+        // Assert
+        assertEquals(Map.of("room-1", Set.of("alice")), first);
+        assertTrue(second.isEmpty());
+        assertFalse(sessions.isOpen("room-1", "alice"));
+        assertTrue(sessions.isOpen("room-1", "bob"));
+    }
+}
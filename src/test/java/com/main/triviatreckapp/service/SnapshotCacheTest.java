@@ -0,0 +1,81 @@
+package com.main.triviatreckapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotCacheTest {
+
+    @Mock
+    private MessageChannel clientOutboundChannel;
+
+    @Mock
+    private MessageChannel brokerChannel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SnapshotCache snapshots;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        snapshots = new SnapshotCache(
+                new StompBroadcaster(new ObjectMapper(), brokerChannel, meterRegistry), clientOutboundChannel, meterRegistry);
+    }
+
+    @Test
+    void send_shouldBuildOncePerVersion_andTargetOnlyTheSubscriber() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        when(clientOutboundChannel.send(any())).thenReturn(true);
+
+        // Act : trois abonnés, une mutation, un quatrième abonné
+        for (int i = 1; i <= 3; i++) {
+            snapshots.send(SnapshotCache.Kind.ROOM, "room-1",
+                    () -> Optional.of(Map.of("version", loads.incrementAndGet())),
+                    "session-" + i, "sub-0", "/chatroom/room-1");
+        }
+        snapshots.invalidate(SnapshotCache.Kind.ROOM, "room-1");
+        snapshots.send(SnapshotCache.Kind.ROOM, "room-1",
+                () -> Optional.of(Map.of("version", loads.incrementAndGet())),
+                "session-4", "sub-0", "/chatroom/room-1");
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(2.0, meterRegistry.get("quiz.snapshots.requests").tags("kind", "room", "result", "hit").counter().count());
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, times(4)).send(sent.capture());
+        Message<?> last = sent.getValue();
+        assertEquals("session-4", SimpMessageHeaderAccessor.getSessionId(last.getHeaders()));
+        assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(last.getHeaders()));
+        assertEquals("{\"version\":2}", new String((byte[]) last.getPayload()));
+    }
+
+    @Test
+    void send_shouldSendNothing_andKeepNothing_whenSnapshotIsAbsent() {
+        // Act
+        boolean sent = snapshots.send(SnapshotCache.Kind.GAME, "game-1", Optional::empty,
+                "session-1", "sub-0", "/game/game-1");
+        Optional<byte[]> later = snapshots.get(SnapshotCache.Kind.GAME, "game-1", () -> Optional.of("ok"));
+
+        // Assert
+        assertFalse(sent);
+        assertTrue(later.isPresent());
+        verifyNoInteractions(clientOutboundChannel);
+    }
+}